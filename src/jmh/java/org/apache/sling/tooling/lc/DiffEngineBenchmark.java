@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.Sets;
+import org.apache.sling.tooling.lc.aether.ArtifactKey;
+import org.apache.sling.tooling.lc.aether.VersionChange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the {@link DiffEngine} with the set difference and stream pipeline it replaced, for a starter sized and a
+ * large synthetic feature
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DiffEngineBenchmark {
+
+    @Param({"250", "100000"})
+    private int size;
+
+    private Map<ArtifactKey, String> from;
+    private Map<ArtifactKey, String> to;
+    private Map<ArtifactKey, String> sortedFrom;
+    private Map<ArtifactKey, String> sortedTo;
+
+    @Setup
+    public void setUp() {
+        from = new HashMap<>();
+        to = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            String groupId = "org.example.group" + (i % 50);
+            // every tenth artifact has a new version, every twentieth one is a different artifact
+            from.put(ArtifactKey.of(groupId, "artifact-" + i, null, null), "1.0." + i);
+            to.put(
+                    ArtifactKey.of(groupId, i % 20 == 0 ? "added-" + i : "artifact-" + i, null, null),
+                    i % 10 == 0 ? "1.1." + i : "1.0." + i);
+        }
+        sortedFrom = new TreeMap<>(from);
+        sortedTo = new TreeMap<>(to);
+    }
+
+    @Benchmark
+    public void diff(Blackhole blackhole) {
+        diff(from, to, blackhole);
+    }
+
+    @Benchmark
+    public void sortedDiff(Blackhole blackhole) {
+        diff(sortedFrom, sortedTo, blackhole);
+    }
+
+    private static void diff(Map<ArtifactKey, String> from, Map<ArtifactKey, String> to, Blackhole blackhole) {
+        DiffEngine.diff(from, to, new DiffEngine.Handler() {
+            @Override
+            public void added(ArtifactKey key, String version) {
+                blackhole.consume(key);
+            }
+
+            @Override
+            public void removed(ArtifactKey key, String version) {
+                blackhole.consume(key);
+            }
+
+            @Override
+            public void changed(ArtifactKey key, String fromVersion, String toVersion) {
+                blackhole.consume(new VersionChange(fromVersion, toVersion));
+            }
+        });
+    }
+
+    @Benchmark
+    public void setDifference(Blackhole blackhole) {
+
+        List<ArtifactKey> removed = Sets.difference(from.keySet(), to.keySet()).stream()
+                .sorted()
+                .collect(Collectors.toList());
+
+        List<ArtifactKey> added = Sets.difference(to.keySet(), from.keySet()).stream()
+                .sorted()
+                .collect(Collectors.toList());
+
+        List<Map.Entry<ArtifactKey, VersionChange>> changed = to.keySet().stream()
+                .filter(k -> from.containsKey(k) && !Objects.equals(to.get(k), from.get(k)))
+                .sorted()
+                .map(k -> new SimpleImmutableEntry<>(k, new VersionChange(from.get(k), to.get(k))))
+                .collect(Collectors.toList());
+
+        blackhole.consume(removed);
+        blackhole.consume(added);
+        blackhole.consume(changed);
+    }
+}
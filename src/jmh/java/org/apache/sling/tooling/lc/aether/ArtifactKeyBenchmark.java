@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.aether;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.feature.ArtifactId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link ArtifactKey} with {@link LegacyArtifactKey} when building the version maps of two launchpads,
+ * looking up the changed artifacts and sorting them, for a starter sized and a large synthetic feature
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArtifactKeyBenchmark {
+
+    @Param({"250", "100000"})
+    private int size;
+
+    private ArtifactId[] from;
+    private ArtifactId[] to;
+    private ArtifactKey[] keys;
+    private LegacyArtifactKey[] legacyKeys;
+
+    @Setup
+    public void setUp() {
+        from = new ArtifactId[size];
+        to = new ArtifactId[size];
+        for (int i = 0; i < size; i++) {
+            String groupId = "org.example.group" + (i % 50);
+            // every tenth artifact has a new version, every twentieth one is a different artifact
+            from[i] = new ArtifactId(groupId, "artifact-" + i, "1.0." + i, i % 7 == 0 ? "tests" : null, null);
+            to[i] = new ArtifactId(
+                    groupId,
+                    i % 20 == 0 ? "added-" + i : "artifact-" + i,
+                    i % 10 == 0 ? "1.1." + i : "1.0." + i,
+                    i % 7 == 0 ? "tests" : null,
+                    null);
+        }
+
+        keys = Arrays.stream(to).map(ArtifactKey::of).toArray(ArtifactKey[]::new);
+        legacyKeys = Arrays.stream(to).map(LegacyArtifactKey::new).toArray(LegacyArtifactKey[]::new);
+    }
+
+    @Benchmark
+    public List<ArtifactKey> diff() {
+        Map<ArtifactKey, String> fromVersions = new HashMap<>();
+        for (ArtifactId id : from) {
+            fromVersions.put(ArtifactKey.of(id), id.getVersion());
+        }
+        Map<ArtifactKey, String> toVersions = new HashMap<>();
+        for (ArtifactId id : to) {
+            toVersions.put(ArtifactKey.of(id), id.getVersion());
+        }
+
+        List<ArtifactKey> changed = new ArrayList<>();
+        for (Map.Entry<ArtifactKey, String> entry : toVersions.entrySet()) {
+            String fromVersion = fromVersions.get(entry.getKey());
+            if (fromVersion != null && !Objects.equals(fromVersion, entry.getValue())) {
+                changed.add(entry.getKey());
+            }
+        }
+        changed.sort(null);
+        return changed;
+    }
+
+    @Benchmark
+    public List<LegacyArtifactKey> legacyDiff() {
+        Map<LegacyArtifactKey, String> fromVersions = new HashMap<>();
+        for (ArtifactId id : from) {
+            fromVersions.put(new LegacyArtifactKey(id), id.getVersion());
+        }
+        Map<LegacyArtifactKey, String> toVersions = new HashMap<>();
+        for (ArtifactId id : to) {
+            toVersions.put(new LegacyArtifactKey(id), id.getVersion());
+        }
+
+        List<LegacyArtifactKey> changed = new ArrayList<>();
+        for (Map.Entry<LegacyArtifactKey, String> entry : toVersions.entrySet()) {
+            String fromVersion = fromVersions.get(entry.getKey());
+            if (fromVersion != null && !Objects.equals(fromVersion, entry.getValue())) {
+                changed.add(entry.getKey());
+            }
+        }
+        changed.sort(null);
+        return changed;
+    }
+
+    @Benchmark
+    public ArtifactKey[] sort() {
+        ArtifactKey[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    @Benchmark
+    public LegacyArtifactKey[] legacySort() {
+        LegacyArtifactKey[] sorted = legacyKeys.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
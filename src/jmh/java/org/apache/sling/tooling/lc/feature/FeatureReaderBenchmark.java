@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.feature;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.sling.feature.Artifact;
+import org.apache.sling.feature.Feature;
+import org.apache.sling.feature.io.json.FeatureJSONReader;
+import org.apache.sling.tooling.lc.aether.ArtifactKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the {@link FeatureBundleReader} with reading the full feature model, on synthetic features with
+ * configurations and a repoinit section, or on a real feature passed with <tt>-p feature=path/to/file</tt>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeatureReaderBenchmark {
+
+    /**
+     * The number of bundles of a synthetic feature, or the path to a feature file
+     */
+    @Param({"250", "5000"})
+    private String feature;
+
+    private byte[] content;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (feature.matches("\\d+")) {
+            content = syntheticFeature(Integer.parseInt(feature)).getBytes(StandardCharsets.UTF_8);
+        } else {
+            content = Files.readAllBytes(Paths.get(feature));
+        }
+    }
+
+    @Benchmark
+    public Map<ArtifactKey, String> bundleReader() throws IOException {
+        try (Reader reader = reader()) {
+            return FeatureBundleReader.read(reader, feature);
+        }
+    }
+
+    @Benchmark
+    public Map<ArtifactKey, Artifact> featureModel() throws IOException {
+        Feature read;
+        try (Reader reader = reader()) {
+            read = FeatureJSONReader.read(reader, feature);
+        }
+        return read.getBundles().stream()
+                .collect(Collectors.toMap(a -> ArtifactKey.of(a.getId()), Function.identity(), (a, b) -> b));
+    }
+
+    private Reader reader() {
+        return new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Builds a feature shaped like a starter: about one configuration for every two bundles, framework properties and
+     * a large repoinit section
+     */
+    static String syntheticFeature(int bundles) {
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"id\": \"org.example:synthetic:slingosgifeature:test:1.0.0\",\n");
+        json.append("  \"variables\": { \"example.version\": \"1.0.0\" },\n");
+
+        json.append("  \"bundles\": [\n");
+        for (int i = 0; i < bundles; i++) {
+            json.append("    { \"id\": \"org.example.group")
+                    .append(i % 50)
+                    .append(":artifact-")
+                    .append(i)
+                    .append(i % 10 == 0 ? ":${example.version}" : ":1.0." + i)
+                    .append("\", \"start-order\": \"")
+                    .append(i % 30)
+                    .append("\" }")
+                    .append(i < bundles - 1 ? ",\n" : "\n");
+        }
+        json.append("  ],\n");
+
+        json.append("  \"configurations\": {\n");
+        for (int i = 0; i < bundles / 2; i++) {
+            json.append("    \"org.example.Component~").append(i).append("\": {\n");
+            for (int p = 0; p < 10; p++) {
+                json.append("      \"property").append(p).append("\": ");
+                json.append(p % 3 == 0 ? "[\"first\", \"second\", \"third\"]" : "\"value " + p + "\"");
+                json.append(p < 9 ? ",\n" : "\n");
+            }
+            json.append(i < bundles / 2 - 1 ? "    },\n" : "    }\n");
+        }
+        json.append("  },\n");
+
+        json.append("  \"framework-properties\": {\n");
+        for (int i = 0; i < 50; i++) {
+            json.append("    \"org.example.property").append(i).append("\": \"value\"");
+            json.append(i < 49 ? ",\n" : "\n");
+        }
+        json.append("  },\n");
+
+        json.append("  \"repoinit:TEXT|true\": [\n");
+        for (int i = 0; i < bundles * 4; i++) {
+            json.append("    \"create path /content/example/").append(i).append("(sling:Folder)\"");
+            json.append(i < bundles * 4 - 1 ? ",\n" : "\n");
+        }
+        json.append("  ]\n}\n");
+
+        return json.toString();
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.git;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Repository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link GitChangeLogFinder#getChanges(String, String, String)} on a generated repository with a release tag
+ * every {@value #COMMITS_PER_RELEASE} commits
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GitChangeLogFinderBenchmark {
+
+    private static final String ARTIFACT_ID = "org.apache.sling.benchmark";
+
+    private static final int COMMITS_PER_RELEASE = 25;
+
+    @Param({"5000"})
+    private int commits;
+
+    private Path root;
+    private GitChangeLogFinder finder;
+    private GitChangeLogFinder indexed;
+    private String lastRelease;
+
+    @Setup
+    public void setUp() throws IOException, GitAPIException {
+        root = Files.createTempDirectory("changelog-benchmark");
+
+        try (Git git = Git.init()
+                .setDirectory(new File(root.toFile(), ARTIFACT_ID.replace('.', '-')))
+                .call()) {
+            for (int i = 0; i < commits; i++) {
+                git.commit()
+                        .setMessage("SLING-" + i + " change number " + i + "\n\nWith some more details.")
+                        .setAllowEmpty(true)
+                        .call();
+                if (i % COMMITS_PER_RELEASE == 0) {
+                    lastRelease = "1.0." + i / COMMITS_PER_RELEASE;
+                    git.tag()
+                            .setName(ARTIFACT_ID + "-" + lastRelease)
+                            .setAnnotated(true)
+                            .call();
+                }
+            }
+            git.gc().call();
+        }
+
+        finder = new GitChangeLogFinder(root.toString());
+
+        // the index holds all releases, the way it does after the first run
+        indexed = new GitChangeLogFinder(root.toString());
+        indexed.setCommitIndexDirectory(root.resolve("commit-index"));
+        indexed.getChanges(ARTIFACT_ID, "1.0.0", lastRelease);
+        indexed.save();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        finder.close();
+        indexed.close();
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    /**
+     * All the history, from the first to the last release
+     */
+    @Benchmark
+    public List<String> fullHistory() throws IOException, GitAPIException {
+        return finder.getChanges(ARTIFACT_ID, "1.0.0", lastRelease);
+    }
+
+    /**
+     * All the history, combined from the commit index
+     */
+    @Benchmark
+    public List<String> fullHistoryIndexed() throws IOException, GitAPIException {
+        return indexed.getChanges(ARTIFACT_ID, "1.0.0", lastRelease);
+    }
+
+    /**
+     * All the history, including opening the repository and loading the commit index, as in a later run
+     */
+    @Benchmark
+    public List<String> fullHistoryIndexedColdRepository() throws IOException, GitAPIException {
+        try (GitChangeLogFinder cold = new GitChangeLogFinder(root.toString())) {
+            cold.setCommitIndexDirectory(root.resolve("commit-index"));
+            return cold.getChanges(ARTIFACT_ID, "1.0.0", lastRelease);
+        }
+    }
+
+    /**
+     * All the history, the way it was walked before, through a log command which parses every commit in full
+     */
+    @Benchmark
+    public List<String> fullHistoryLogCommand() throws IOException, GitAPIException {
+        try (Repository repository = Git.open(new File(root.toFile(), ARTIFACT_ID.replace('.', '-')))
+                .getRepository()) {
+            TagIndex tags = new TagIndex(repository);
+            List<String> commits = new ArrayList<>();
+            Git.wrap(repository)
+                    .log()
+                    .addRange(tags.resolve(ARTIFACT_ID, "1.0.0"), tags.resolve(ARTIFACT_ID, lastRelease))
+                    .call()
+                    .forEach(c -> commits.add(c.getShortMessage()));
+            return commits;
+        }
+    }
+
+    /**
+     * All pairs of consecutive releases, as compared when going through many launchpad versions
+     */
+    @Benchmark
+    public int consecutiveReleases() throws IOException, GitAPIException {
+        int commits = 0;
+        for (int i = 1; i < this.commits / COMMITS_PER_RELEASE; i++) {
+            commits += finder.getChanges(ARTIFACT_ID, "1.0." + (i - 1), "1.0." + i).size();
+        }
+        return commits;
+    }
+
+    /**
+     * Two consecutive releases, the common case
+     */
+    @Benchmark
+    public List<String> lastRelease() throws IOException, GitAPIException {
+        return finder.getChanges(ARTIFACT_ID, "1.0." + (commits / COMMITS_PER_RELEASE - 2), lastRelease);
+    }
+
+    /**
+     * Two consecutive releases, including opening the repository and indexing its tags
+     */
+    @Benchmark
+    public List<String> lastReleaseColdRepository() throws IOException, GitAPIException {
+        try (GitChangeLogFinder cold = new GitChangeLogFinder(root.toString())) {
+            return cold.getChanges(ARTIFACT_ID, "1.0." + (commits / COMMITS_PER_RELEASE - 2), lastRelease);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.jira;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures extracting the issue keys from generated commit messages with {@link IssueKeyScanner}
+ *
+ * <p>The <tt>firstLine</tt> benchmark is the way keys were found before, matching the start of the first line only,
+ * and <tt>regex</tt> finds the same keys as the scanner with a regular expression.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IssueKeyScannerBenchmark {
+
+    private static final Pattern FIRST_LINE = Pattern.compile("^(SLING-\\d+).*");
+
+    private static final Pattern KEYS = Pattern.compile("(?<![A-Za-z0-9_])(?:SLING|OAK|FELIX)-\\d{1,9}(?![A-Za-z0-9_])");
+
+    @Param({"10000"})
+    private int commits;
+
+    private List<String> messages;
+
+    private final IssueKeyScanner scanner = IssueKeyScanner.forProjects("SLING,OAK,FELIX");
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        messages = new ArrayList<>();
+        for (int i = 0; i < commits; i++) {
+            StringBuilder message = new StringBuilder();
+            switch (i % 4) {
+                case 0:
+                    message.append("SLING-").append(random.nextInt(12000)).append(" - Fix the resource resolver");
+                    break;
+                case 1:
+                    message.append("[SLING-").append(random.nextInt(12000)).append("] Update the dependencies");
+                    break;
+                case 2:
+                    message.append("Release the next development iteration");
+                    break;
+                default:
+                    message.append("Merge pull request #").append(i).append(" from contributor/branch");
+            }
+            message.append("\n\nSome longer explanation of the change, which touches a few classes and adds tests.\n");
+            if (i % 3 == 0) {
+                message.append("Also fixes OAK-").append(random.nextInt(9000)).append(" and FELIX-");
+                message.append(random.nextInt(6000)).append(".\n");
+            }
+            message.append("\ngit-svn-id: https://svn.apache.org/repos/asf/sling/trunk@").append(1000000 + i);
+            messages.add(message.toString());
+        }
+    }
+
+    @Benchmark
+    public Set<String> scan() {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String message : messages) {
+            scanner.scan(message, keys);
+        }
+        return keys;
+    }
+
+    @Benchmark
+    public Set<String> regex() {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String message : messages) {
+            Matcher matcher = KEYS.matcher(message);
+            while (matcher.find()) {
+                keys.add(matcher.group());
+            }
+        }
+        return keys;
+    }
+
+    // LaunchpadComparer.toJiraKey before the full messages were scanned
+    @Benchmark
+    public Set<String> firstLine() {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String message : messages) {
+            Matcher matcher = FIRST_LINE.matcher(message.split(System.lineSeparator())[0]);
+            if (matcher.matches()) {
+                keys.add(matcher.group(1));
+            }
+        }
+        return keys;
+    }
+}
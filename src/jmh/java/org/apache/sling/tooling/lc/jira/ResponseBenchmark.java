@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.jira;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading a Jira search {@link Response} the way {@link JiraClient} does, on a payload shaped like the ones
+ * returned by issues.apache.org, with the extra properties Jira adds to each issue and issue type, and sorting the
+ * issues found
+ *
+ * <p>The <tt>reflective</tt> and <tt>regex</tt> benchmarks are the baselines: binding the response with a new
+ * {@link Gson} instance, and comparing issues by matching their keys against a regular expression each time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseBenchmark {
+
+    @Param({"100", "1000"})
+    private int issues;
+
+    private String json;
+
+    private List<Issue> parsed;
+
+    @Setup
+    public void setUp() {
+        StringBuilder response = new StringBuilder();
+        response.append("{\"expand\":\"names,schema\",\"startAt\":0,\"maxResults\":")
+                .append(issues)
+                .append(",\"total\":")
+                .append(issues)
+                .append(",\"issues\":[");
+        for (int i = 0; i < issues; i++) {
+            response.append(i > 0 ? "," : "")
+                    .append("{\"expand\":\"operations,versionedRepresentations,editmeta,changelog,renderedFields\",")
+                    .append("\"id\":\"")
+                    .append(13000000 + i)
+                    .append("\",\"self\":\"https://issues.apache.org/jira/rest/api/2/issue/")
+                    .append(13000000 + i)
+                    .append("\",\"key\":\"SLING-")
+                    .append(i + 1)
+                    .append("\",\"fields\":{\"summary\":\"Summary of issue number ")
+                    .append(i + 1)
+                    .append(" with a \\\"quoted\\\" part and some more words to make it realistic\",")
+                    .append("\"issuetype\":{\"self\":\"https://issues.apache.org/jira/rest/api/2/issuetype/1\",")
+                    .append("\"id\":\"1\",\"description\":\"A problem which impairs or prevents the functions.\",")
+                    .append("\"iconUrl\":\"https://issues.apache.org/jira/secure/viewavatar?avatarId=21133\",")
+                    .append("\"name\":\"")
+                    .append(i % 3 == 0 ? "Bug" : "Improvement")
+                    .append("\",\"subtask\":false,\"avatarId\":21133}}}");
+        }
+        response.append("]}");
+        json = response.toString();
+
+        // keys in the order Jira returns them for a search by key, which is not numerical
+        parsed = new ArrayList<>(parse().getIssues());
+        Collections.shuffle(parsed, new Random(42));
+    }
+
+    @Benchmark
+    public Response parse() {
+        return JiraJson.GSON.fromJson(new StringReader(json), Response.class);
+    }
+
+    @Benchmark
+    public Response parseReflective() {
+        return new Gson().fromJson(new StringReader(json), Response.class);
+    }
+
+    @Benchmark
+    public List<Issue> sort() {
+        List<Issue> issues = new ArrayList<>(parsed);
+        Collections.sort(issues);
+        return issues;
+    }
+
+    @Benchmark
+    public List<Issue> sortRegex() {
+        List<Issue> issues = new ArrayList<>(parsed);
+        issues.sort(ResponseBenchmark::compareByRegex);
+        return issues;
+    }
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("^([A-Z]+)-(\\d+)$");
+
+    // Issue.compareTo before the keys were parsed up front
+    private static int compareByRegex(Issue ours, Issue theirs) {
+
+        Matcher ourMatcher = KEY_PATTERN.matcher(ours.getKey());
+        Matcher theirMatcher = KEY_PATTERN.matcher(theirs.getKey());
+
+        if (!ourMatcher.matches() || !theirMatcher.matches()) {
+            throw new IllegalArgumentException("No match found for " + ours.getKey() + " or " + theirs.getKey());
+        }
+
+        String ourProject = ourMatcher.group(1);
+        String theirProject = theirMatcher.group(1);
+
+        if (!Objects.equals(ourProject, theirProject)) {
+            return ourProject.compareTo(theirProject);
+        }
+
+        return Integer.compare(Integer.parseInt(ourMatcher.group(2)), Integer.parseInt(theirMatcher.group(2)));
+    }
+}
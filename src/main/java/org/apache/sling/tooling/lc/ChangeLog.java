@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc;
+
+import java.util.List;
+
+import org.apache.sling.tooling.lc.jira.Issue;
+
+/**
+ * The commits and the Jira issues found between two versions of an artifact
+ */
+public class ChangeLog {
+
+    private final String artifactId;
+    private final String from;
+    private final String to;
+    private final List<String> messages;
+    private final List<Issue> issues;
+
+    public ChangeLog(String artifactId, String from, String to, List<String> messages, List<Issue> issues) {
+        this.artifactId = artifactId;
+        this.from = from;
+        this.to = to;
+        this.messages = messages;
+        this.issues = issues;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public List<String> getMessages() {
+        return messages;
+    }
+
+    public List<Issue> getIssues() {
+        return issues;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeLog [" + artifactId + " " + from + " -> " + to + ", " + messages.size() + " commits, "
+                + issues.size() + " issues]";
+    }
+}
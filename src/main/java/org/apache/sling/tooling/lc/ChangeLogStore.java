@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.gson.JsonParseException;
+import org.apache.sling.tooling.lc.jira.JiraJson;
+
+/**
+ * Persists the change logs computed for pairs of released versions, so that later runs only need to compute the
+ * pairs they have not seen before
+ *
+ * <p>Change logs involving a SNAPSHOT version are never stored, since the commits they cover keep changing. Each
+ * change log is stored with the format of the issue key extraction and the issue projects it was computed with, and
+ * dropped when loaded with different ones.</p>
+ */
+public class ChangeLogStore {
+
+    public static final String DEFAULT_LOCATION = "target/changelog-store/changelogs.json";
+
+    /**
+     * Issue keys used to be taken from the start of the first line only, without a format being stored
+     */
+    static final int FORMAT = 2;
+
+    /**
+     * @param file the location of the store
+     * @param issueProjects the Jira projects of which the issue keys are extracted, as in
+     *     {@link org.apache.sling.tooling.lc.jira.IssueKeyScanner#getProjects()}
+     */
+    public static ChangeLogStore open(Path file, String issueProjects) throws IOException {
+        ChangeLogStore store = new ChangeLogStore(file, issueProjects);
+        store.load();
+        return store;
+    }
+
+    private final Path file;
+    private final String issueProjects;
+    private final Map<String, ChangeLog> changeLogs = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private volatile boolean modified;
+
+    private ChangeLogStore(Path file, String issueProjects) {
+        this.file = file;
+        this.issueProjects = issueProjects;
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Entry[] stored = JiraJson.GSON.fromJson(reader, Entry[].class);
+            if (stored != null) {
+                int dropped = 0;
+                for (Entry entry : stored) {
+                    if (entry.format != FORMAT
+                            || !issueProjects.equals(entry.issueProjects)
+                            || entry.changeLog == null) {
+                        dropped++;
+                        continue;
+                    }
+                    ChangeLog changeLog = entry.changeLog;
+                    changeLogs.put(key(changeLog.getArtifactId(), changeLog.getFrom(), changeLog.getTo()), changeLog);
+                }
+                if (dropped > 0) {
+                    // written back without them on the next save
+                    modified = true;
+                    System.err.println("Dropped " + dropped + " change logs from " + file
+                            + " computed with other issue key rules");
+                }
+            }
+        } catch (JsonParseException e) {
+            // everything can be computed again, so a broken store is not worth failing the run for
+            System.err.println("Ignoring unreadable change log store " + file + " : " + e.getMessage());
+        }
+    }
+
+    public synchronized void save() throws IOException {
+        if (!modified) {
+            return;
+        }
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            List<Entry> entries = new ArrayList<>();
+            for (ChangeLog changeLog : changeLogs.values()) {
+                entries.add(new Entry(issueProjects, changeLog));
+            }
+            JiraJson.GSON.toJson(entries, writer);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        modified = false;
+    }
+
+    /**
+     * @return the stored change log, or <code>null</code> if it was not computed before or involves a SNAPSHOT
+     */
+    public ChangeLog get(String artifactId, String from, String to) {
+        ChangeLog changeLog = isSnapshot(from) || isSnapshot(to) ? null : changeLogs.get(key(artifactId, from, to));
+        (changeLog != null ? hits : misses).incrementAndGet();
+        return changeLog;
+    }
+
+    /**
+     * Stores the change log, unless it involves a SNAPSHOT version
+     */
+    public void put(ChangeLog changeLog) {
+        if (isSnapshot(changeLog.getFrom()) || isSnapshot(changeLog.getTo())) {
+            return;
+        }
+        changeLogs.put(key(changeLog.getArtifactId(), changeLog.getFrom(), changeLog.getTo()), changeLog);
+        modified = true;
+    }
+
+    private static boolean isSnapshot(String version) {
+        return version.endsWith("-SNAPSHOT");
+    }
+
+    private static String key(String artifactId, String from, String to) {
+        return artifactId + ":" + from + ":" + to;
+    }
+
+    private static final class Entry {
+
+        private final int format;
+        private final String issueProjects;
+        private final ChangeLog changeLog;
+
+        Entry(String issueProjects, ChangeLog changeLog) {
+            this.format = FORMAT;
+            this.issueProjects = issueProjects;
+            this.changeLog = changeLog;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Change log store: " + hits + " reused, " + misses + " computed, " + changeLogs.size() + " stored";
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.sling.tooling.lc.aether.AetherSetup;
+import org.apache.sling.tooling.lc.git.GitChangeLogFinder;
+import org.apache.sling.tooling.lc.git.RepositoryMapping;
+import org.apache.sling.tooling.lc.git.RepositoryRegistry;
+import org.apache.sling.tooling.lc.jira.IssueCache;
+import org.apache.sling.tooling.lc.jira.IssueFinder;
+import org.apache.sling.tooling.lc.jira.IssueIndex;
+import org.apache.sling.tooling.lc.jira.IssueKeyScanner;
+import org.apache.sling.tooling.lc.jira.IssueResolver;
+import org.apache.sling.tooling.lc.jira.JiraClient;
+import org.apache.sling.tooling.lc.metrics.Metrics;
+import org.eclipse.aether.repository.RemoteRepository;
+
+/**
+ * Holds the state which comparisons can share: the Maven repository session, the open git repositories, the Jira
+ * client, the caches and the executor
+ *
+ * <p>Everything is set up on first use and kept until the context is closed. A single comparison uses a context of its
+ * own, while the {@link ComparisonServer} keeps one for all the comparisons it runs.
+ */
+public class ComparerContext implements Closeable {
+
+    private final String slingRepoCheckout;
+    private final Options options;
+    private final Metrics metrics;
+
+    private ExecutorService executor;
+    private AetherSetup aether;
+    private GitChangeLogFinder git;
+    private IssueResolver issueResolver;
+    private IssueCache issueCache;
+    private boolean issueCacheOpened;
+    private ChangeLogStore changeLogStore;
+    private boolean changeLogStoreOpened;
+
+    /**
+     * @param slingRepoCheckout the repo root for Apache Sling
+     * @param options the settings for all comparisons
+     */
+    public ComparerContext(String slingRepoCheckout, Options options) {
+        this.slingRepoCheckout = slingRepoCheckout;
+        this.options = options;
+        this.metrics = options.has("metrics") ? new Metrics() : Metrics.DISABLED;
+    }
+
+    public Options getOptions() {
+        return options;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = TaskExecutors.newBoundedExecutor(
+                    "comparer", options.getPositiveInt("threads", TaskExecutors.DEFAULT_THREADS));
+        }
+        return executor;
+    }
+
+    public synchronized AetherSetup getAether() {
+        if (aether == null) {
+            aether = newAetherSetup();
+        }
+        return aether;
+    }
+
+    public synchronized GitChangeLogFinder getGit() throws IOException {
+        if (git == null) {
+            git = new GitChangeLogFinder(openRepositoryRegistry());
+            git.setMetrics(metrics);
+            git.setIssueKeyScanner(newIssueKeyScanner());
+            String commitIndex = options.get("commit-index", GitChangeLogFinder.DEFAULT_COMMIT_INDEX_LOCATION);
+            if (!"none".equals(commitIndex)) {
+                git.setCommitIndexDirectory(Paths.get(commitIndex));
+            }
+        }
+        return git;
+    }
+
+    /**
+     * @return the local {@link IssueIndex} with <tt>--issue-resolver=index</tt>, otherwise the {@link IssueFinder}
+     *     calling Jira
+     */
+    public synchronized IssueResolver getIssueResolver() throws IOException {
+        if (issueResolver == null) {
+            issueResolver = newIssueResolver();
+        }
+        return issueResolver;
+    }
+
+    /**
+     * @return the issue cache, or <code>null</code> if disabled
+     */
+    public synchronized IssueCache getIssueCache() throws IOException {
+        if (!issueCacheOpened) {
+            issueCache = openIssueCache();
+            issueCacheOpened = true;
+        }
+        return issueCache;
+    }
+
+    /**
+     * @return the change log store, or <code>null</code> if disabled
+     */
+    public synchronized ChangeLogStore getChangeLogStore() throws IOException {
+        if (!changeLogStoreOpened) {
+            changeLogStore = openChangeLogStore();
+            changeLogStoreOpened = true;
+        }
+        return changeLogStore;
+    }
+
+    /**
+     * Picks up the tags fetched into the git repositories since they were first used
+     */
+    public synchronized void refresh() {
+        if (git != null) {
+            git.refresh();
+        }
+    }
+
+    private AetherSetup newAetherSetup() {
+
+        // any aether.* option is passed on to the repository session
+        Map<String, String> config = options.getAll("aether.");
+        if (options.has("download-threads")) {
+            config.put(AetherSetup.DOWNLOAD_THREADS, options.get("download-threads", null));
+        }
+
+        AetherSetup aether = new AetherSetup(options.get("local-repo", AetherSetup.DEFAULT_LOCAL_REPOSITORY), config);
+        aether.setMetrics(metrics);
+        aether.setOffline(options.getBoolean("offline"));
+        aether.setUpdatePolicy(options.get("update-policy", null));
+
+        // id::url entries, separated by commas
+        if (options.has("remote-repos")) {
+            List<RemoteRepository> repositories = new ArrayList<>();
+            for (String repository : options.get("remote-repos", null).split(",")) {
+                String[] parts = repository.split("::", 2);
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException(
+                            "Invalid remote repository " + repository + ", expected id::url");
+                }
+                repositories.add(new RemoteRepository.Builder(parts[0], "default", parts[1]).build());
+            }
+            aether.setRemoteRepositories(repositories);
+        }
+
+        // either url, or id::url::mirrorOf
+        if (options.has("mirror")) {
+            String[] parts = options.get("mirror", null).split("::");
+            if (parts.length == 1) {
+                aether.addMirror("mirror", parts[0], "*");
+            } else if (parts.length == 3) {
+                aether.addMirror(parts[0], parts[1], parts[2]);
+            } else {
+                throw new IllegalArgumentException("Invalid mirror " + options.get("mirror", null));
+            }
+        }
+
+        return aether;
+    }
+
+    private RepositoryRegistry openRepositoryRegistry() throws IOException {
+
+        RepositoryRegistry.configureWindowCache(
+                options.getSize("git-packed-limit", 128L << 20),
+                options.getInt("git-open-files", 512),
+                options.getBoolean("git-mmap"),
+                (int) options.getSize("git-delta-cache-limit", 32L << 20));
+
+        String mapping = options.get("git-mapping", null);
+        return new RepositoryRegistry(
+                slingRepoCheckout,
+                mapping != null ? RepositoryMapping.load(Paths.get(mapping)) : RepositoryMapping.DEFAULT);
+    }
+
+    private IssueCache openIssueCache() throws IOException {
+
+        String location = options.get("jira-cache", IssueCache.DEFAULT_LOCATION);
+        if ("none".equals(location)) {
+            return null;
+        }
+
+        return IssueCache.open(
+                Paths.get(location),
+                options.getDuration("jira-cache-ttl", IssueCache.DEFAULT_TTL),
+                options.getInt("jira-cache-size", IssueCache.DEFAULT_MAX_ENTRIES));
+    }
+
+    private ChangeLogStore openChangeLogStore() throws IOException {
+
+        String location = options.get("changelog-store", ChangeLogStore.DEFAULT_LOCATION);
+        if ("none".equals(location)) {
+            return null;
+        }
+
+        return ChangeLogStore.open(Paths.get(location), newIssueKeyScanner().getProjects());
+    }
+
+    /**
+     * @return the URL to which issue keys are appended to link to the issues, on the <tt>--jira-url</tt> instance also
+     *     when they are looked up in the offline index
+     */
+    public String getIssueUrl() {
+        String jiraUrl = options.get("jira-url", IssueFinder.DEFAULT_JIRA_URL);
+        return (jiraUrl.endsWith("/") ? jiraUrl : jiraUrl + "/") + "browse/";
+    }
+
+    private IssueKeyScanner newIssueKeyScanner() {
+        // --issue-projects=SLING,OAK,FELIX
+        return IssueKeyScanner.forProjects(options.get("issue-projects", IssueKeyScanner.DEFAULT_PROJECTS));
+    }
+
+    private IssueResolver newIssueResolver() throws IOException {
+
+        String resolver = options.get("issue-resolver", "jira");
+        if ("index".equals(resolver)) {
+            IssueIndex index = IssueIndex.open(Paths.get(options.get("issue-index", IssueIndex.DEFAULT_LOCATION)));
+            index.setMetrics(metrics);
+            return index;
+        }
+        if (!"jira".equals(resolver)) {
+            throw new IllegalArgumentException("Unknown issue resolver " + resolver + ", expected jira or index");
+        }
+
+        JiraClient client = new JiraClient(
+                options.get("jira-url", IssueFinder.DEFAULT_JIRA_URL),
+                options.getDuration("jira-connect-timeout", JiraClient.DEFAULT_CONNECT_TIMEOUT),
+                options.getDuration("jira-read-timeout", JiraClient.DEFAULT_READ_TIMEOUT),
+                options.getInt("jira-max-connections", JiraClient.DEFAULT_MAX_CONNECTIONS_PER_HOST));
+
+        client.setMetrics(metrics);
+        client.setRetries(
+                options.getInt("jira-retries", JiraClient.DEFAULT_RETRIES),
+                options.getDuration("jira-max-backoff", JiraClient.DEFAULT_MAX_BACKOFF));
+
+        IssueFinder issueFinder =
+                new IssueFinder(client, getIssueCache(), options.getBoolean("offline"), getExecutor());
+        issueFinder.setMetrics(metrics);
+        return issueFinder;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (issueResolver != null) {
+                issueResolver.close();
+            }
+        } finally {
+            if (git != null) {
+                git.close();
+            }
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
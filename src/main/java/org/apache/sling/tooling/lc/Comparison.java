@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.sling.feature.ArtifactId;
+import org.apache.sling.tooling.lc.aether.ArtifactKey;
+import org.apache.sling.tooling.lc.aether.VersionChange;
+
+/**
+ * The artifacts added, removed and changed between two launchpad versions, each sorted for output
+ */
+public class Comparison {
+
+    /**
+     * Compares the artifacts of two launchpad versions
+     *
+     * @param fromVersion the old launchpad version
+     * @param from the artifacts of the old launchpad version
+     * @param toVersion the new launchpad version
+     * @param to the artifacts of the new launchpad version
+     * @return the comparison
+     */
+    public static Comparison compare(
+            String fromVersion, Map<ArtifactKey, String> from, String toVersion, Map<ArtifactKey, String> to) {
+
+        List<ArtifactId> added = new ArrayList<>();
+        List<ArtifactId> removed = new ArrayList<>();
+        List<Map.Entry<ArtifactKey, VersionChange>> changed = new ArrayList<>();
+
+        DiffEngine.diff(from, to, new DiffEngine.Handler() {
+            @Override
+            public void added(ArtifactKey key, String version) {
+                added.add(toArtifactId(key, version));
+            }
+
+            @Override
+            public void removed(ArtifactKey key, String version) {
+                removed.add(toArtifactId(key, version));
+            }
+
+            @Override
+            public void changed(ArtifactKey key, String fromVersion, String toVersion) {
+                changed.add(new SimpleImmutableEntry<>(key, new VersionChange(fromVersion, toVersion)));
+            }
+        });
+
+        return new Comparison(fromVersion, toVersion, added, removed, changed);
+    }
+
+    private static ArtifactId toArtifactId(ArtifactKey key, String version) {
+        return new ArtifactId(key.getGroupId(), key.getArtifactId(), version, key.getClassifier(), key.getType());
+    }
+
+    private final String fromVersion;
+    private final String toVersion;
+    private final List<ArtifactId> added;
+    private final List<ArtifactId> removed;
+    private final List<Map.Entry<ArtifactKey, VersionChange>> changed;
+
+    public Comparison(
+            String fromVersion,
+            String toVersion,
+            List<ArtifactId> added,
+            List<ArtifactId> removed,
+            List<Map.Entry<ArtifactKey, VersionChange>> changed) {
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.added = added;
+        this.removed = removed;
+        this.changed = changed;
+    }
+
+    public String getFromVersion() {
+        return fromVersion;
+    }
+
+    public String getToVersion() {
+        return toVersion;
+    }
+
+    public List<ArtifactId> getAdded() {
+        return added;
+    }
+
+    public List<ArtifactId> getRemoved() {
+        return removed;
+    }
+
+    public List<Map.Entry<ArtifactKey, VersionChange>> getChanged() {
+        return changed;
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.sling.tooling.lc.aether.Artifacts;
+import org.apache.sling.tooling.lc.feature.FeatureFiles;
+import org.apache.sling.tooling.lc.report.ReportWriter;
+import org.apache.sling.tooling.lc.report.ReportWriters;
+
+/**
+ * Runs comparisons on request over HTTP, keeping the {@link ComparerContext} warm between them
+ *
+ * <p>The server only listens on the loopback interface and handles up to <tt>--server-threads</tt> requests at a time:
+ *
+ * <ul>
+ *   <li><tt>GET /compare?versions=11,12&amp;format=json</tt> compares the versions, given as for <tt>--matrix</tt>,
+ *       and returns the report in the given format, <tt>plaintext</tt> by default. Local features are only read from
+ *       the <tt>--server-features</tt> directory, given relative to it</li>
+ *   <li><tt>POST /refresh</tt> picks up the tags fetched into the git repositories since they were first used</li>
+ *   <li><tt>GET /metrics</tt> returns the metrics collected so far, if enabled with <tt>--metrics</tt></li>
+ * </ul>
+ */
+public class ComparisonServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 8088;
+
+    public static final int DEFAULT_THREADS = 4;
+
+    /**
+     * @param options the options, with <tt>--serve</tt> for the default port or <tt>--serve=&lt;port&gt;</tt>
+     * @return the port to listen on
+     * @throws IllegalArgumentException in case the port is not a valid port number
+     */
+    public static int getPort(Options options) {
+        if ("true".equals(options.get("serve", null))) {
+            return DEFAULT_PORT;
+        }
+        int port = options.getInt("serve", DEFAULT_PORT);
+        if (port < 0 || port > 0xFFFF) {
+            throw new IllegalArgumentException("Invalid port for --serve : " + port);
+        }
+        return port;
+    }
+
+    private final ComparerContext context;
+    private final Path featureDirectory;
+    private final ExecutorService executor;
+    private final HttpServer server;
+
+    /**
+     * @param context the state shared by all comparisons, closed together with the server
+     * @param port the port to listen on, <tt>0</tt> for any free one
+     * @throws IOException in case the server cannot listen on the port or the feature directory does not exist
+     */
+    public ComparisonServer(ComparerContext context, int port) throws IOException {
+        this.context = context;
+        Options options = context.getOptions();
+        String features = options.get("server-features", null);
+        this.featureDirectory = features != null ? Paths.get(features).toRealPath() : null;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        // the default executor runs the requests one after the other on the server's own thread
+        this.executor =
+                TaskExecutors.newBoundedExecutor("server", options.getPositiveInt("server-threads", DEFAULT_THREADS));
+        server.setExecutor(executor);
+        server.createContext("/compare", exchange -> handle(exchange, "GET", this::compare));
+        server.createContext("/refresh", exchange -> handle(exchange, "POST", this::refresh));
+        server.createContext("/metrics", exchange -> handle(exchange, "GET", this::metrics));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    private void compare(HttpExchange exchange) throws Exception {
+
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String spec = query.get("versions");
+        if (spec == null) {
+            throw new IllegalArgumentException("Missing versions parameter");
+        }
+        List<String> versions = Artifacts.launchpadVersions(spec);
+        Map<String, Path> localFeatures = localFeatures(versions);
+        String format = query.getOrDefault("format", "plaintext");
+
+        // compute everything first, so that failures can still be reported with a proper status
+        LaunchpadComparer comparer = new LaunchpadComparer(versions, localFeatures, format, context);
+        comparer.compare();
+
+        exchange.getResponseHeaders().set("Content-Type", ReportWriters.getContentType(format));
+        exchange.sendResponseHeaders(200, 0);
+        try (ReportWriter report = ReportWriters.open(
+                format,
+                new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)),
+                context.getIssueUrl())) {
+            comparer.writeReport(report);
+        }
+        comparer.printStatistics();
+    }
+
+    /**
+     * Tells the local features apart from the versions to download, as {@link LaunchpadComparer} does for the command
+     * line, but only reads them from the feature directory
+     *
+     * @return the local features, resolved against the feature directory
+     * @throws IllegalArgumentException in case a local feature is outside of the feature directory
+     */
+    private Map<String, Path> localFeatures(List<String> versions) throws IOException {
+
+        Map<String, Path> localFeatures = new HashMap<>();
+        for (String version : versions) {
+            if (Artifacts.isDownloadable(version)) {
+                continue;
+            }
+            if (featureDirectory == null) {
+                throw new IllegalArgumentException("Invalid version or coordinates " + version
+                        + ", local features are only read with --server-features");
+            }
+            localFeatures.put(version, FeatureFiles.resolve(featureDirectory, version));
+        }
+        return localFeatures;
+    }
+
+    private void refresh(HttpExchange exchange) throws IOException {
+        context.refresh();
+        respond(exchange, 200, "Refreshed");
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        try (PrintStream out = new PrintStream(exchange.getResponseBody(), false, "UTF-8")) {
+            context.getMetrics().print(out);
+        }
+    }
+
+    private static void handle(HttpExchange exchange, String method, Handler handler) throws IOException {
+        try {
+            if (!method.equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", method);
+                respond(exchange, 405, "Only " + method + " is supported");
+                return;
+            }
+            handler.handle(exchange);
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, e.getMessage());
+        } catch (Exception e) {
+            System.err.println("Failed handling " + exchange.getRequestURI() + " : " + e);
+            respond(exchange, 500, e.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String message) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            // the response has already started, nothing left to report the error with
+            return;
+        }
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            if (parameter.isEmpty()) {
+                continue;
+            }
+            int separator = parameter.indexOf('=');
+            String name = separator < 0 ? parameter : parameter.substring(0, separator);
+            String value = separator < 0 ? "" : parameter.substring(separator + 1);
+            query.put(
+                    URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.stop(0);
+        executor.shutdown();
+        context.close();
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange) throws Exception;
+    }
+}
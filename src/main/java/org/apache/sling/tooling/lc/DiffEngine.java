@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import org.apache.sling.tooling.lc.aether.ArtifactKey;
+
+/**
+ * Computes the differences between two sets of artifact versions
+ *
+ * <p>The differences are reported in key order. Versions which are already sorted by key are merged in a single
+ * pass; otherwise each side is probed once against the other one and only the differences are sorted, which for
+ * launchpads sharing most of their artifacts is much cheaper than sorting both sides.
+ */
+public class DiffEngine {
+
+    /**
+     * Receives the differences, in key order
+     */
+    public interface Handler {
+
+        void added(ArtifactKey key, String version);
+
+        void removed(ArtifactKey key, String version);
+
+        void changed(ArtifactKey key, String fromVersion, String toVersion);
+    }
+
+    /**
+     * Reports the artifacts added, removed and changed between two sets of artifact versions
+     *
+     * @param from the old versions
+     * @param to the new versions
+     * @param handler receives the differences, in key order
+     */
+    public static void diff(Map<ArtifactKey, String> from, Map<ArtifactKey, String> to, Handler handler) {
+        if (isSorted(from) && isSorted(to)) {
+            merge(from, to, handler);
+        } else {
+            probe(from, to, handler);
+        }
+    }
+
+    private static boolean isSorted(Map<ArtifactKey, String> versions) {
+        return versions instanceof SortedMap && ((SortedMap<ArtifactKey, String>) versions).comparator() == null;
+    }
+
+    private static void merge(Map<ArtifactKey, String> from, Map<ArtifactKey, String> to, Handler handler) {
+
+        Iterator<Map.Entry<ArtifactKey, String>> fromEntries = from.entrySet().iterator();
+        Iterator<Map.Entry<ArtifactKey, String>> toEntries = to.entrySet().iterator();
+
+        Map.Entry<ArtifactKey, String> ours = fromEntries.hasNext() ? fromEntries.next() : null;
+        Map.Entry<ArtifactKey, String> theirs = toEntries.hasNext() ? toEntries.next() : null;
+
+        while (ours != null || theirs != null) {
+            int order = ours == null ? 1 : theirs == null ? -1 : ours.getKey().compareTo(theirs.getKey());
+            if (order < 0) {
+                handler.removed(ours.getKey(), ours.getValue());
+            } else if (order > 0) {
+                handler.added(theirs.getKey(), theirs.getValue());
+            } else if (!ours.getValue().equals(theirs.getValue())) {
+                handler.changed(ours.getKey(), ours.getValue(), theirs.getValue());
+            }
+            if (order <= 0) {
+                ours = fromEntries.hasNext() ? fromEntries.next() : null;
+            }
+            if (order >= 0) {
+                theirs = toEntries.hasNext() ? toEntries.next() : null;
+            }
+        }
+    }
+
+    private static void probe(Map<ArtifactKey, String> from, Map<ArtifactKey, String> to, Handler handler) {
+
+        List<Difference> differences = new ArrayList<>();
+        for (Map.Entry<ArtifactKey, String> theirs : to.entrySet()) {
+            String ours = from.get(theirs.getKey());
+            if (ours == null || !ours.equals(theirs.getValue())) {
+                differences.add(new Difference(theirs.getKey(), ours, theirs.getValue()));
+            }
+        }
+        for (Map.Entry<ArtifactKey, String> ours : from.entrySet()) {
+            if (!to.containsKey(ours.getKey())) {
+                differences.add(new Difference(ours.getKey(), ours.getValue(), null));
+            }
+        }
+
+        differences.sort(null);
+
+        for (Difference difference : differences) {
+            if (difference.fromVersion == null) {
+                handler.added(difference.key, difference.toVersion);
+            } else if (difference.toVersion == null) {
+                handler.removed(difference.key, difference.fromVersion);
+            } else {
+                handler.changed(difference.key, difference.fromVersion, difference.toVersion);
+            }
+        }
+    }
+
+    private static final class Difference implements Comparable<Difference> {
+
+        private final ArtifactKey key;
+        private final String fromVersion;
+        private final String toVersion;
+
+        private Difference(ArtifactKey key, String fromVersion, String toVersion) {
+            this.key = key;
+            this.fromVersion = fromVersion;
+            this.toVersion = toVersion;
+        }
+
+        @Override
+        public int compareTo(Difference o) {
+            return key.compareTo(o.key);
+        }
+    }
+}
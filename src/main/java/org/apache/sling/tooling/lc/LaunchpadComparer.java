@@ -18,171 +18,503 @@
  */
 package org.apache.sling.tooling.lc;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-import com.google.common.collect.Sets;
-import org.apache.sling.feature.Artifact;
-import org.apache.sling.feature.Feature;
-import org.apache.sling.feature.io.json.FeatureJSONReader;
-import org.apache.sling.tooling.lc.aether.AetherSetup;
+import org.apache.sling.feature.ArtifactId;
 import org.apache.sling.tooling.lc.aether.ArtifactKey;
 import org.apache.sling.tooling.lc.aether.Artifacts;
 import org.apache.sling.tooling.lc.aether.VersionChange;
+import org.apache.sling.tooling.lc.feature.FeatureFiles;
 import org.apache.sling.tooling.lc.git.GitChangeLogFinder;
 import org.apache.sling.tooling.lc.jira.Issue;
-import org.apache.sling.tooling.lc.jira.IssueFinder;
-import org.eclipse.jgit.api.errors.GitAPIException;
+import org.apache.sling.tooling.lc.jira.IssueCache;
+import org.apache.sling.tooling.lc.metrics.Metrics;
+import org.apache.sling.tooling.lc.report.ReportWriter;
+import org.apache.sling.tooling.lc.report.ReportWriters;
 
 public class LaunchpadComparer {
 
-    private static final Pattern JIRA_KEY_PATTERN = Pattern.compile("^(SLING-\\d+).*");
-
-    private final String firstVersion;
-    private final String secondVersion;
+    private final List<String> versions;
+    private final Map<String, Path> localFeatures;
     private final String output;
-    private final String slingRepoCheckout;
+    private final ComparerContext context;
+    private final boolean ownContext;
+    private final Options options;
+    private final Metrics metrics;
+    private final PrintStream progress;
+
+    private List<Comparison> comparisons;
+    private Map<String, ChangeLog> changeLogs;
 
     public LaunchpadComparer(String firstVersion, String secondVersion, String output, String slingRepoCheckout) {
-        this.firstVersion = firstVersion;
-        this.secondVersion = secondVersion;
-        this.output = output;
-        this.slingRepoCheckout = slingRepoCheckout;
+        this(firstVersion, secondVersion, output, slingRepoCheckout, Options.parse());
+    }
+
+    public LaunchpadComparer(
+            String firstVersion, String secondVersion, String output, String slingRepoCheckout, Options options) {
+        this(Arrays.asList(firstVersion, secondVersion), output, slingRepoCheckout, options);
+    }
+
+    /**
+     * @param versions the launchpad versions to compare, each one with the one before it. Versions which do not look
+     *     like a launchpad version or feature coordinates are read as local feature files or directories
+     * @param output the output format, <tt>plaintext</tt>, <tt>markdown</tt>, <tt>json</tt> or <tt>csv</tt>
+     * @param slingRepoCheckout the repo root for Apache Sling
+     * @param options additional settings
+     */
+    public LaunchpadComparer(List<String> versions, String output, String slingRepoCheckout, Options options) {
+        this(versions, localFeatures(versions), output, new ComparerContext(slingRepoCheckout, options), true);
+    }
+
+    /**
+     * @param versions the launchpad versions to compare, each one with the one before it. Versions which do not look
+     *     like a launchpad version or feature coordinates are read as local feature files or directories
+     * @param output the output format, <tt>plaintext</tt>, <tt>markdown</tt>, <tt>json</tt> or <tt>csv</tt>
+     * @param context the shared state to use, which stays open afterwards
+     */
+    public LaunchpadComparer(List<String> versions, String output, ComparerContext context) {
+        this(versions, localFeatures(versions), output, context, false);
     }
 
-    private boolean isMarkdown() {
-        return "markdown".equals(output);
+    /**
+     * @param versions the launchpad versions to compare, each one with the one before it
+     * @param localFeatures the feature file or directory of each version which is read locally, all other versions
+     *     are downloaded
+     * @param output the output format, <tt>plaintext</tt>, <tt>markdown</tt>, <tt>json</tt> or <tt>csv</tt>
+     * @param context the shared state to use, which stays open afterwards
+     */
+    public LaunchpadComparer(
+            List<String> versions, Map<String, Path> localFeatures, String output, ComparerContext context) {
+        this(versions, localFeatures, output, context, false);
+    }
+
+    private LaunchpadComparer(
+            List<String> versions,
+            Map<String, Path> localFeatures,
+            String output,
+            ComparerContext context,
+            boolean ownContext) {
+        if (versions.size() < 2) {
+            throw new IllegalArgumentException("At least two versions are needed, got " + versions);
+        }
+        if (!ReportWriters.isSupported(output)) {
+            throw new IllegalArgumentException(
+                    "Unknown output format " + output + ", expected plaintext, markdown, json or csv");
+        }
+        for (String version : versions) {
+            if (!localFeatures.containsKey(version)) {
+                // fails early for anything which is neither local nor can be downloaded
+                Artifacts.featureCoordinates(version);
+            }
+        }
+        this.versions = versions;
+        this.localFeatures = localFeatures;
+        this.output = output;
+        this.context = context;
+        this.ownContext = ownContext;
+        this.options = context.getOptions();
+        this.metrics = context.getMetrics();
+
+        // keep progress out of reports meant for other programs
+        boolean separateOutput = !ownContext || options.has("output-file") || ReportWriters.isMachineReadable(output);
+        this.progress = separateOutput ? System.err : System.out;
     }
 
+    /**
+     * Compares the versions and writes the report to the <tt>--output-file</tt>, or to standard output
+     */
     public void run() throws Exception {
 
-        System.out.format(
-                "Computing differences between Launchpad versions %s and %s...%n", firstVersion, secondVersion);
+        String outputFile = options.get("output-file", null);
+        try (Metrics.Timer timer = metrics.start("run")) {
+            compare();
+            try (ReportWriter report = ReportWriters.open(
+                    output, outputFile != null ? Paths.get(outputFile) : null, context.getIssueUrl())) {
+                writeReport(report);
+            }
+            printStatistics();
+        } finally {
+            if (ownContext) {
+                context.close();
+            }
+        }
+        if (outputFile != null) {
+            System.err.println("Report written to " + outputFile);
+        }
 
-        // 1. download artifacts
-        AetherSetup aether = new AetherSetup();
+        if (!ownContext) {
+            return;
+        }
 
-        File fromFile = aether.download(Artifacts.launchpadCoordinates(firstVersion));
-        File toFile = aether.download(Artifacts.launchpadCoordinates(secondVersion));
+        // --metrics prints a table, --metrics=<file> writes JSON
+        String metricsOutput = options.get("metrics", null);
+        if ("true".equals(metricsOutput)) {
+            metrics.print(System.err);
+        } else if (metricsOutput != null) {
+            metrics.write(Paths.get(metricsOutput));
+            System.err.println("Metrics written to " + metricsOutput);
+        }
+    }
+
+    /**
+     * Computes the differences between the versions and the change logs of the changed artifacts
+     */
+    void compare() throws Exception {
+
+        if (versions.size() == 2) {
+            progress.format(
+                    "Computing differences between Launchpad versions %s and %s...%n",
+                    versions.get(0), versions.get(1));
+        } else {
+            progress.format("Computing differences between Launchpad versions %s...%n", String.join(", ", versions));
+        }
+
+        // 1. download all remote features at once, local ones are read in place
+        Metrics.Timer phase = metrics.start("phase.download");
+        List<Path> locations = locateFeatures();
+        phase.close();
 
-        // 2. parse artifact definitions
-        Map<ArtifactKey, Artifact> from = readArtifactsFromOsgiFeature(fromFile);
-        Map<ArtifactKey, Artifact> to = readArtifactsFromOsgiFeature(toFile);
+        // 2. parse artifact definitions, each one only once
+        phase = metrics.start("phase.parse");
+        List<Map<ArtifactKey, String>> artifacts = readArtifacts(locations);
+        phase.close();
 
-        // 3. generate added / removed / changed
-        Set<Artifact> removed = Sets.difference(from.keySet(), to.keySet()).stream()
-                .map(k -> from.get(k))
-                .collect(Collectors.toSet());
+        // 3. generate added / removed / changed for each pair of consecutive versions
+        phase = metrics.start("phase.diff");
+        comparisons = new ArrayList<>();
+        for (int i = 1; i < versions.size(); i++) {
+            comparisons.add(
+                    Comparison.compare(versions.get(i - 1), artifacts.get(i - 1), versions.get(i), artifacts.get(i)));
+        }
+        phase.close();
 
-        Set<Artifact> added = Sets.difference(to.keySet(), from.keySet()).stream()
-                .map(k -> to.get(k))
-                .collect(Collectors.toSet());
+        // the same artifact version change may show up in several comparisons, it is only looked up once
+        Map<String, Map.Entry<ArtifactKey, VersionChange>> slingChanges = new LinkedHashMap<>();
+        for (Comparison comparison : comparisons) {
+            for (Map.Entry<ArtifactKey, VersionChange> change : comparison.getChanged()) {
+                if (change.getKey().getGroupId().equals("org.apache.sling")) {
+                    slingChanges.putIfAbsent(changeLogKey(change), change);
+                }
+            }
+        }
 
-        Map<ArtifactKey, VersionChange> changed = to.values().stream()
-                .filter(k -> !added.contains(k) && !removed.contains(k))
-                .map(k -> new ArtifactKey(k))
-                .filter(k -> !Objects.equals(
-                        to.get(k).getId().getVersion(), from.get(k).getId().getVersion()))
-                .collect(Collectors.toMap(
-                        Function.identity(),
-                        k -> new VersionChange(
-                                from.get(k).getId().getVersion(),
-                                to.get(k).getId().getVersion())));
+        ChangeLogStore changeLogStore = context.getChangeLogStore();
+        IssueCache issueCache = context.getIssueCache();
+        changeLogs = new HashMap<>();
 
-        // 4. output changes
+        GitChangeLogFinder git = context.getGit();
+        ExecutorService executor = context.getExecutor();
+        // 4. reuse the change logs of Sling artifacts computed by earlier runs
+        List<Map.Entry<ArtifactKey, VersionChange>> unknown = new ArrayList<>();
+        for (Map.Entry<String, Map.Entry<ArtifactKey, VersionChange>> change : slingChanges.entrySet()) {
+            ArtifactKey artifact = change.getValue().getKey();
+            VersionChange versionChange = change.getValue().getValue();
+            ChangeLog known = changeLogStore != null
+                    ? changeLogStore.get(artifact.getArtifactId(), versionChange.getFrom(), versionChange.getTo())
+                    : null;
+            if (known != null) {
+                changeLogs.put(change.getKey(), known);
+            } else {
+                unknown.add(change.getValue());
+            }
+        }
 
-        System.out.println("\nAdded:");
-        added.stream().sorted().forEach(this::outputFormatted);
+        metrics.count("changelogs.reused", changeLogs.size());
+        metrics.count("changelogs.computed", unknown.size());
 
-        System.out.println("\nRemoved:");
-        removed.stream().sorted().forEach(this::outputFormatted);
+        // 5. collect the commits of all other changed Sling artifacts
+        phase = metrics.start("phase.git");
+        Map<String, GitChangeLogFinder.Commits> commits = collectChanges(unknown, git, executor);
+        phase.close();
 
-        System.out.println("\nChanged:");
-        changed.entrySet().stream()
-                .sorted((a, b) -> a.getKey().compareTo(b.getKey()))
-                .forEach(this::outputFormatted);
+        // 6. resolve all Jira keys at once, instead of querying Jira per artifact
+        phase = metrics.start("phase.jira");
+        Map<String, Issue> issues = findIssues(commits);
+        phase.close();
+        if (issues != null && issues.values().stream().anyMatch(Issue::isKeyOnly)) {
+            System.err.println("Jira is unavailable, some issues are listed with their key only");
+        }
+
+        // 7. assemble the change logs, remembering the ones between two released versions
+        for (Map.Entry<ArtifactKey, VersionChange> change : unknown) {
+            ArtifactKey artifact = change.getKey();
+            VersionChange versionChange = change.getValue();
+            GitChangeLogFinder.Commits artifactCommits = commits.get(changeLogKey(change));
+            if (artifactCommits == null) {
+                continue;
+            }
+
+            ChangeLog changeLog = new ChangeLog(
+                    artifact.getArtifactId(),
+                    versionChange.getFrom(),
+                    versionChange.getTo(),
+                    artifactCommits.getMessages(),
+                    toIssues(artifactCommits.getIssueKeys(), issues != null ? issues : Collections.emptyMap()));
+            changeLogs.put(changeLogKey(change), changeLog);
+
+            // offline lookups are only as complete as the issue cache or index, and neither are degraded ones
+            if (changeLogStore != null
+                    && issues != null
+                    && changeLog.getIssues().stream().noneMatch(Issue::isKeyOnly)
+                    && !options.getBoolean("offline")
+                    && !"index".equals(options.get("issue-resolver", "jira"))
+                    && git.isTagged(artifact.getArtifactId(), versionChange.getFrom())
+                    && git.isTagged(artifact.getArtifactId(), versionChange.getTo())) {
+                changeLogStore.put(changeLog);
+            }
+        }
+
+        git.save();
+        if (changeLogStore != null) {
+            changeLogStore.save();
+        }
+        if (issueCache != null) {
+            issueCache.save();
+        }
     }
 
-    private Map<ArtifactKey, Artifact> readArtifactsFromOsgiFeature(File toFile) throws IOException {
-        Feature fromFeature;
-        try (BufferedReader reader = Files.newBufferedReader(toFile.toPath())) {
-            fromFeature = FeatureJSONReader.read(reader, toFile.toPath().toString());
+    /**
+     * Prints the hits and misses of the stores used by {@link #compare()}, to be called once the report is complete
+     */
+    void printStatistics() throws IOException {
+        ChangeLogStore changeLogStore = context.getChangeLogStore();
+        if (changeLogStore != null) {
+            System.err.println(changeLogStore);
+        }
+        IssueCache issueCache = context.getIssueCache();
+        if (issueCache != null) {
+            System.err.println(issueCache);
         }
-        return fromFeature.getBundles().stream()
-                .collect(Collectors.toMap(a -> new ArtifactKey(a), Function.identity(), (first, second) -> second));
     }
 
-    private void outputFormatted(Artifact a) {
-        if (isMarkdown()) {
-            System.out.format(
-                    "* `%s`:**`%s`** %s%n",
-                    a.getId().getGroupId(), a.getId().getArtifactId(), a.getId().getVersion());
-        } else {
-            System.out.format(
-                    "    %-30s : %-55s : %s%n",
-                    a.getId().getGroupId(), a.getId().getArtifactId(), a.getId().getVersion());
+    /**
+     * Writes the outcome of {@link #compare()}
+     *
+     * @param report the writer, closed by the caller
+     */
+    void writeReport(ReportWriter report) throws IOException {
+
+        // 8. output changes
+        Metrics.Timer phase = metrics.start("phase.output");
+        report.startReport(versions);
+        for (Comparison comparison : comparisons) {
+            report.startComparison(comparison.getFromVersion(), comparison.getToVersion());
+
+            report.startSection(ReportWriter.Section.ADDED);
+            for (ArtifactId artifact : comparison.getAdded()) {
+                report.artifact(artifact);
+            }
+
+            report.startSection(ReportWriter.Section.REMOVED);
+            for (ArtifactId artifact : comparison.getRemoved()) {
+                report.artifact(artifact);
+            }
+
+            report.startSection(ReportWriter.Section.CHANGED);
+            for (Map.Entry<ArtifactKey, VersionChange> change : comparison.getChanged()) {
+                ChangeLog changeLog = changeLogs.get(changeLogKey(change));
+                report.changed(change.getKey(), change.getValue(), changeLog != null ? changeLog.getIssues() : null);
+            }
         }
+        phase.close();
     }
 
-    private void outputFormatted(Map.Entry<ArtifactKey, VersionChange> e) {
+    private static String changeLogKey(Map.Entry<ArtifactKey, VersionChange> change) {
+        return change.getKey().getArtifactId() + ":" + change.getValue().getFrom() + ":"
+                + change.getValue().getTo();
+    }
 
-        ArtifactKey artifact = e.getKey();
-        VersionChange versionChange = e.getValue();
+    private List<Path> locateFeatures() throws Exception {
 
-        if (isMarkdown()) {
-            System.out.format(
-                    "* `%s`:**`%s`** %s -> %s%n",
-                    artifact.getGroupId(), artifact.getArtifactId(), versionChange.getFrom(), versionChange.getTo());
-        } else {
-            System.out.format(
-                    "    %-30s : %-55s : %s -> %s%n",
-                    artifact.getGroupId(), artifact.getArtifactId(), versionChange.getFrom(), versionChange.getTo());
+        Path[] locations = new Path[versions.size()];
+        List<Integer> remote = new ArrayList<>();
+        List<String> coordinates = new ArrayList<>();
+        for (int i = 0; i < versions.size(); i++) {
+            Path local = localFeatures.get(versions.get(i));
+            if (local != null) {
+                locations[i] = local;
+            } else {
+                remote.add(i);
+                coordinates.add(Artifacts.featureCoordinates(versions.get(i)));
+            }
         }
 
-        if (!artifact.getGroupId().equals("org.apache.sling")) {
-            return;
+        if (!coordinates.isEmpty()) {
+            List<File> files = context.getAether().download(coordinates);
+            for (int i = 0; i < remote.size(); i++) {
+                locations[remote.get(i)] = files.get(i).toPath();
+            }
         }
 
-        GitChangeLogFinder git = new GitChangeLogFinder(slingRepoCheckout);
+        return Arrays.asList(locations);
+    }
+
+    /**
+     * Tells the local features apart from the versions to download
+     *
+     * <p>Whatever looks like a launchpad version or feature coordinates is downloaded, even if a file of that name
+     * exists, so that <tt>12</tt> always means the same. Such files are given as <tt>./12</tt> instead.
+     *
+     * @return the local feature file or directory of each version which is not downloaded
+     * @throws IllegalArgumentException in case such a version is not an existing file or directory
+     */
+    private static Map<String, Path> localFeatures(List<String> versions) {
 
-        try {
-            List<String> issueKeys =
-                    git.getChanges(artifact.getArtifactId(), versionChange.getFrom(), versionChange.getTo()).stream()
-                            .map(m -> m.split(System.lineSeparator())[0])
-                            .map(LaunchpadComparer::toJiraKey)
-                            .filter(k -> k != null)
-                            .collect(Collectors.toList());
-
-            List<Issue> issues = new IssueFinder().findIssues(issueKeys);
-            if (isMarkdown()) {
-                issues.forEach(i -> System.out.format(
-                        "    * [%s %s](https://issues.apache.org/jira/browse/%s) (%s)%n",
-                        i.getKey(), i.getSummary(), i.getKey(), i.getIssueType()));
-            } else {
-                issues.forEach(i -> System.out.format("        %-10s - %s%n", i.getKey(), i.getSummary()));
+        Map<String, Path> localFeatures = new HashMap<>();
+        for (String version : versions) {
+            if (Artifacts.isDownloadable(version)) {
+                continue;
+            }
+            Path path;
+            try {
+                path = Paths.get(version);
+            } catch (InvalidPathException e) {
+                throw new IllegalArgumentException("Invalid version, coordinates or feature location " + version);
+            }
+            if (!Files.exists(path)) {
+                throw new IllegalArgumentException("No feature file or directory " + version);
+            }
+            localFeatures.put(version, path);
+        }
+        return localFeatures;
+    }
+
+    /**
+     * Reads all feature files concurrently, merging the ones found in the same directory
+     */
+    private List<Map<ArtifactKey, String>> readArtifacts(List<Path> locations) throws Exception {
+
+        List<List<Path>> features = new ArrayList<>();
+        for (Path location : locations) {
+            features.add(FeatureFiles.list(location));
+        }
+
+        ExecutorService executor = context.getExecutor();
+        // submit everything first, so that the features of all versions are parsed at the same time
+        List<List<Future<Map<ArtifactKey, String>>>> pending = new ArrayList<>();
+        for (List<Path> files : features) {
+            List<Future<Map<ArtifactKey, String>>> parsed = new ArrayList<>();
+            for (Path file : files) {
+                parsed.add(executor.submit(() -> FeatureFiles.read(file)));
             }
+            pending.add(parsed);
+        }
+        metrics.count("features.parsed", features.stream().mapToInt(List::size).sum());
 
-        } catch (GitAPIException | IOException e1) {
-            System.err.println("Failed retrieving changes : " + e1.getMessage());
+        List<Map<ArtifactKey, String>> artifacts = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i++) {
+            List<Map<ArtifactKey, String>> parsed = new ArrayList<>();
+            for (Future<Map<ArtifactKey, String>> feature : pending.get(i)) {
+                try {
+                    parsed.add(feature.get());
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof IOException ? (IOException) e.getCause() : e;
+                }
+            }
+            List<String> conflicts = new ArrayList<>();
+            artifacts.add(FeatureFiles.merge(parsed, conflicts));
+            for (String conflict : conflicts) {
+                System.err.format("Warning: %s in %s%n", conflict, versions.get(i));
+            }
         }
+        return artifacts;
     }
 
-    private static String toJiraKey(String message) {
-        Matcher matcher = JIRA_KEY_PATTERN.matcher(message);
-        if (!matcher.matches()) {
+    private Map<String, GitChangeLogFinder.Commits> collectChanges(
+            List<Map.Entry<ArtifactKey, VersionChange>> changes, GitChangeLogFinder git, ExecutorService executor)
+            throws InterruptedException {
+
+        // repositories are walked at the same time, artifacts sharing a repository are walked together
+        Map<String, List<GitChangeLogFinder.Range>> rangesByRepository = new LinkedHashMap<>();
+        for (Map.Entry<ArtifactKey, VersionChange> change : changes) {
+            String artifactId = change.getKey().getArtifactId();
+            rangesByRepository
+                    .computeIfAbsent(git.getRepository(artifactId), r -> new ArrayList<>())
+                    .add(new GitChangeLogFinder.Range(
+                            artifactId,
+                            change.getValue().getFrom(),
+                            change.getValue().getTo()));
+        }
+
+        Map<String, Future<Map<GitChangeLogFinder.Range, GitChangeLogFinder.Commits>>> pending = new LinkedHashMap<>();
+        for (Map.Entry<String, List<GitChangeLogFinder.Range>> ranges : rangesByRepository.entrySet()) {
+            pending.put(ranges.getKey(), executor.submit(() -> git.getCommits(ranges.getValue())));
+        }
+
+        // collect in submission order, which keeps error reporting in the same order as the output
+        Map<String, GitChangeLogFinder.Commits> commits = new HashMap<>();
+        for (Map.Entry<String, Future<Map<GitChangeLogFinder.Range, GitChangeLogFinder.Commits>>> result :
+                pending.entrySet()) {
+            Map<GitChangeLogFinder.Range, GitChangeLogFinder.Commits> repositoryCommits;
+            try {
+                repositoryCommits = result.getValue().get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+            }
+
+            // a failed range, e.g. of an artifact without release tags, leaves the others in its repository alone
+            for (GitChangeLogFinder.Range range : rangesByRepository.get(result.getKey())) {
+                GitChangeLogFinder.Commits rangeCommits = repositoryCommits.get(range);
+                if (rangeCommits.getFailure() != null) {
+                    System.err.println("Failed retrieving changes for " + range + " : "
+                            + rangeCommits.getFailure().getMessage());
+                } else {
+                    commits.put(range.getArtifactId() + ":" + range.getFrom() + ":" + range.getTo(), rangeCommits);
+                }
+            }
+        }
+
+        return commits;
+    }
+
+    /**
+     * @return the issues referenced from the commit messages by key, or <code>null</code> if the lookup failed
+     */
+    private Map<String, Issue> findIssues(Map<String, GitChangeLogFinder.Commits> commits) {
+
+        Set<String> allKeys = commits.values().stream()
+                .flatMap(c -> c.getIssueKeys().stream())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        try {
+            return context.getIssueResolver().findIssues(allKeys).stream()
+                    .collect(Collectors.toMap(Issue::getKey, Function.identity(), (first, second) -> first));
+        } catch (IOException e) {
+            System.err.println("Failed retrieving issues : " + e.getMessage());
             return null;
         }
+    }
 
-        return matcher.group(1);
+    private static List<Issue> toIssues(Set<String> issueKeys, Map<String, Issue> issuesByKey) {
+        return issueKeys.stream()
+                .map(issuesByKey::get)
+                .filter(Objects::nonNull)
+                .sorted()
+                .collect(Collectors.toList());
     }
 }
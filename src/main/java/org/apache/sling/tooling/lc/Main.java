@@ -18,21 +18,66 @@
  */
 package org.apache.sling.tooling.lc;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.sling.tooling.lc.aether.Artifacts;
+import org.apache.sling.tooling.lc.jira.Issue;
+import org.apache.sling.tooling.lc.jira.IssueExports;
+import org.apache.sling.tooling.lc.jira.IssueIndex;
+
 public class Main {
 
     public static void main(String[] args) throws Exception {
 
-        String firstVersion = "12";
-        String secondVersion = "13-SNAPSHOT";
-        String output = "plaintext";
-        if (args.length == 2) {
-            firstVersion = args[0];
-            secondVersion = args[1];
+        Options options = Options.parse(args);
+
+        // --import-issues=export.csv,export.json builds the offline issue index and exits
+        if (options.has("import-issues")) {
+            List<Issue> issues = new ArrayList<>();
+            for (String file : options.get("import-issues", "").split(",")) {
+                issues.addAll(IssueExports.read(Paths.get(file)));
+            }
+            Path index = Paths.get(options.get("issue-index", IssueIndex.DEFAULT_LOCATION));
+            int count = IssueIndex.write(index, issues);
+            System.err.format("Imported %d issues into %s%n", count, index);
+            return;
+        }
+
+        // --serve or --serve=<port> keeps running and compares on request
+        if (options.has("serve")) {
+            ComparisonServer server =
+                    new ComparisonServer(new ComparerContext("..", options), ComparisonServer.getPort(options));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                } catch (IOException e) {
+                    System.err.println("Failed stopping the server : " + e.getMessage());
+                }
+            }));
+            server.start();
+            System.err.format(
+                    "Listening on http://%s:%d/compare%n",
+                    server.getAddress().getHostString(), server.getAddress().getPort());
+            return;
         }
-        if (args.length == 3) {
-            output = args[2];
+
+        // --matrix=8,9,10 or --matrix=8..10 replaces the two version arguments
+        if (options.has("matrix")) {
+            List<String> versions = Artifacts.launchpadVersions(options.get("matrix", ""));
+            String output = options.getArgument(0, "plaintext");
+
+            new LaunchpadComparer(versions, output, "..", options).run();
+            return;
         }
 
-        new LaunchpadComparer(firstVersion, secondVersion, output, "..").run();
+        String firstVersion = options.getArgument(0, "12");
+        String secondVersion = options.getArgument(1, "13-SNAPSHOT");
+        String output = options.getArgument(2, "plaintext");
+
+        new LaunchpadComparer(firstVersion, secondVersion, output, "..", options).run();
     }
 }
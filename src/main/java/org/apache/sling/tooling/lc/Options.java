@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Splits the command line into positional arguments and <tt>--name=value</tt> or <tt>--flag</tt> options
+ */
+public class Options {
+
+    private final List<String> arguments = new ArrayList<>();
+    private final Map<String, String> options = new HashMap<>();
+
+    public static Options parse(String... args) {
+
+        Options parsed = new Options();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                parsed.arguments.add(arg);
+                continue;
+            }
+
+            int separator = arg.indexOf('=');
+            if (separator == -1) {
+                parsed.options.put(arg.substring(2), "true");
+            } else {
+                parsed.options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return parsed;
+    }
+
+    public List<String> getArguments() {
+        return Collections.unmodifiableList(arguments);
+    }
+
+    public String getArgument(int index, String defaultValue) {
+        return index < arguments.size() ? arguments.get(index) : defaultValue;
+    }
+
+    public boolean has(String name) {
+        return options.containsKey(name);
+    }
+
+    public String get(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    /**
+     * @return all options starting with the given prefix, including the prefix in their names
+     */
+    public Map<String, String> getAll(String prefix) {
+        Map<String, String> matching = new HashMap<>();
+        options.forEach((name, value) -> {
+            if (name.startsWith(prefix)) {
+                matching.put(name, value);
+            }
+        });
+        return matching;
+    }
+
+    public boolean getBoolean(String name) {
+        return Boolean.parseBoolean(options.get(name));
+    }
+
+    public int getInt(String name, int defaultValue) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for --" + name + " : " + value);
+        }
+    }
+
+    /**
+     * @param name the option name
+     * @param defaultValue the value to use when the option is not set
+     * @return the number, at least <tt>1</tt>
+     */
+    public int getPositiveInt(String name, int defaultValue) {
+        int value = getInt(name, defaultValue);
+        if (value < 1) {
+            throw new IllegalArgumentException(
+                    "Invalid number for --" + name + " : " + value + ", expected at least 1");
+        }
+        return value;
+    }
+
+    /**
+     * @param name the option name
+     * @param defaultValue the value to use when the option is not set
+     * @return the size in bytes, given either as plain number or with a <tt>k</tt>, <tt>m</tt> or <tt>g</tt> suffix
+     */
+    public long getSize(String name, long defaultValue) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        String number = value.toLowerCase(Locale.ROOT);
+        int shift = 0;
+        switch (number.isEmpty() ? ' ' : number.charAt(number.length() - 1)) {
+            case 'g':
+                shift = 30;
+                break;
+            case 'm':
+                shift = 20;
+                break;
+            case 'k':
+                shift = 10;
+                break;
+            default:
+                break;
+        }
+        if (shift > 0) {
+            number = number.substring(0, number.length() - 1);
+        }
+        try {
+            return Long.parseLong(number) << shift;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid size for --" + name + " : " + value);
+        }
+    }
+
+    /**
+     * @param name the option name
+     * @param defaultValue the value to use when the option is not set
+     * @return the duration, given in ISO-8601 format, e.g. <tt>PT12H</tt> or <tt>P7D</tt>
+     */
+    public Duration getDuration(String name, Duration defaultValue) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Duration.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid duration for --" + name + " : " + value);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executors used for running independent per-artifact work concurrently
+ */
+public class TaskExecutors {
+
+    public static final int DEFAULT_THREADS = 2 * Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Creates an executor which runs at most <tt>threads</tt> tasks at the same time, on virtual threads if the
+     * runtime supports them
+     *
+     * <p>Virtual threads are not pooled, each task gets its own thread and waits for a permit before it runs.
+     *
+     * @param name the prefix for the thread names
+     * @param threads the maximum number of concurrently running tasks
+     * @return the executor, to be shut down by the caller
+     * @throws IllegalArgumentException in case <tt>threads</tt> is less than <tt>1</tt>
+     */
+    public static ExecutorService newBoundedExecutor(String name, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed, got " + threads);
+        }
+        ExecutorService virtual = newVirtualThreadPerTaskExecutor(name);
+        return virtual != null
+                ? limit(virtual, threads)
+                : Executors.newFixedThreadPool(threads, platformThreadFactory(name));
+    }
+
+    /**
+     * @return an executor which runs at most <tt>permits</tt> of the tasks submitted to it at the same time on the
+     *     given executor, which creates a thread per task
+     */
+    static ExecutorService limit(ExecutorService threadPerTask, int permits) {
+        return new LimitedExecutor(threadPerTask, permits);
+    }
+
+    // Thread.ofVirtual() is only final as of Java 21, while we still compile for Java 11
+    private static ExecutorService newVirtualThreadPerTaskExecutor(String name) {
+        if (Runtime.version().feature() < 21) {
+            return null;
+        }
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, name + "-", 0L);
+            ThreadFactory factory =
+                    (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            // same as Executors.newVirtualThreadPerTaskExecutor(), with named threads
+            return (ExecutorService) Executors.class
+                    .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory platformThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, name + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class LimitedExecutor extends AbstractExecutorService {
+
+        private final ExecutorService threadPerTask;
+        private final Semaphore permits;
+
+        LimitedExecutor(ExecutorService threadPerTask, int permits) {
+            this.threadPerTask = threadPerTask;
+            this.permits = new Semaphore(permits);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            threadPerTask.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    // shut down before the task started, so that waiting for it does not block forever
+                    if (task instanceof Future) {
+                        ((Future<?>) task).cancel(false);
+                    }
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            threadPerTask.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return threadPerTask.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return threadPerTask.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return threadPerTask.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return threadPerTask.awaitTermination(timeout, unit);
+        }
+    }
+}
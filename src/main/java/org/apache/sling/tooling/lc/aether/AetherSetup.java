@@ -20,9 +20,13 @@ package org.apache.sling.tooling.lc.aether;
 
 import java.io.File;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.apache.sling.tooling.lc.metrics.Metrics;
 import org.eclipse.aether.DefaultRepositorySystemSession;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.artifact.DefaultArtifact;
@@ -35,20 +39,44 @@ import org.eclipse.aether.resolution.ArtifactResolutionException;
 import org.eclipse.aether.resolution.ArtifactResult;
 import org.eclipse.aether.spi.connector.RepositoryConnectorFactory;
 import org.eclipse.aether.spi.connector.transport.TransporterFactory;
+import org.eclipse.aether.transfer.AbstractTransferListener;
+import org.eclipse.aether.transfer.TransferEvent;
 import org.eclipse.aether.transport.file.FileTransporterFactory;
 import org.eclipse.aether.transport.http.HttpTransporterFactory;
+import org.eclipse.aether.util.repository.DefaultMirrorSelector;
 
 public class AetherSetup {
 
-    private final List<RemoteRepository> repos = Arrays.asList(
+    public static final String DEFAULT_LOCAL_REPOSITORY = "target/local-repo";
+
+    /**
+     * The number of concurrent downloads per repository, used by the basic connector when resolving several artifacts
+     * at once
+     */
+    public static final String DOWNLOAD_THREADS = "aether.connector.basic.threads";
+
+    public static final List<RemoteRepository> DEFAULT_REPOSITORIES = Collections.unmodifiableList(Arrays.asList(
             new RemoteRepository.Builder("central", "default", "https://repo1.maven.org/maven2/").build(),
             new RemoteRepository.Builder("apache", "default", "https://repository.apache.org/content/groups/snapshots/")
-                    .build());
+                    .build()));
 
     private final RepositorySystem system;
     private final DefaultRepositorySystemSession session;
+    private final DefaultMirrorSelector mirrors = new DefaultMirrorSelector();
+    private List<RemoteRepository> repos = DEFAULT_REPOSITORIES;
+    private Metrics metrics = Metrics.DISABLED;
 
     public AetherSetup() {
+        this(DEFAULT_LOCAL_REPOSITORY, Collections.emptyMap());
+    }
+
+    /**
+     * @param localRepository the path of the local repository, a leading <tt>~</tt> stands for the user's home, so
+     *     <tt>~/.m2/repository</tt> shares the repository used by Maven
+     * @param configProperties additional session configuration, e.g. {@value #DOWNLOAD_THREADS},
+     *     <tt>aether.connector.connectTimeout</tt> or <tt>aether.connector.requestTimeout</tt>
+     */
+    public AetherSetup(String localRepository, Map<String, String> configProperties) {
 
         DefaultServiceLocator locator = MavenRepositorySystemUtils.newServiceLocator();
         locator.addService(RepositoryConnectorFactory.class, BasicRepositoryConnectorFactory.class);
@@ -58,15 +86,106 @@ public class AetherSetup {
         system = locator.getService(RepositorySystem.class);
 
         session = MavenRepositorySystemUtils.newSession();
+        configProperties.forEach(session::setConfigProperty);
+        session.setMirrorSelector(mirrors);
 
-        LocalRepository localRepo = new LocalRepository("target/local-repo");
+        LocalRepository localRepo = new LocalRepository(expandHome(localRepository));
         session.setLocalRepositoryManager(system.newLocalRepositoryManager(session, localRepo));
     }
 
+    private static String expandHome(String path) {
+        if (path.equals("~") || path.startsWith("~/")) {
+            return System.getProperty("user.home") + path.substring(1);
+        }
+        return path;
+    }
+
+    /**
+     * @param repos the remote repositories to resolve from, instead of Maven Central and the Apache snapshots
+     */
+    public void setRemoteRepositories(List<RemoteRepository> repos) {
+        this.repos = repos;
+    }
+
+    /**
+     * Routes all requests for the matching remote repositories through a mirror
+     *
+     * @param id the id of the mirror
+     * @param url the URL of the mirror
+     * @param mirrorOf the ids of the repositories to mirror, as in Maven's settings.xml, e.g. <tt>*</tt> or
+     *     <tt>central,!apache</tt>
+     */
+    public void addMirror(String id, String url, String mirrorOf) {
+        mirrors.add(id, url, "default", false, mirrorOf, null);
+    }
+
+    /**
+     * @param offline if <code>true</code> artifacts are only resolved from the local repository
+     */
+    public void setOffline(boolean offline) {
+        session.setOffline(offline);
+    }
+
+    /**
+     * @param updatePolicy how often remote repositories are checked for updated SNAPSHOTs and metadata, one of
+     *     <tt>always</tt>, <tt>daily</tt>, <tt>never</tt> or <tt>interval:$minutes</tt>, or <code>null</code> to use
+     *     the repositories' policies
+     */
+    public void setUpdatePolicy(String updatePolicy) {
+        session.setUpdatePolicy(updatePolicy);
+    }
+
+    /**
+     * @param metrics records the time spent resolving and the bytes actually downloaded
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+        session.setTransferListener(new AbstractTransferListener() {
+            @Override
+            public void transferSucceeded(TransferEvent event) {
+                if (event.getRequestType() == TransferEvent.RequestType.GET) {
+                    metrics.count("aether.downloads", 1);
+                    metrics.count("aether.downloaded-bytes", event.getTransferredBytes());
+                }
+            }
+        });
+    }
+
     public File download(String coordinates) throws ArtifactResolutionException {
-        ArtifactResult fromResult =
-                system.resolveArtifact(session, new ArtifactRequest(new DefaultArtifact(coordinates), repos, null));
+        try (Metrics.Timer timer = metrics.start("aether.resolve")) {
+            ArtifactResult fromResult = system.resolveArtifact(
+                    session, new ArtifactRequest(new DefaultArtifact(coordinates), resolutionRepositories(), null));
+
+            metrics.count("aether.artifacts", 1);
+            return fromResult.getArtifact().getFile();
+        }
+    }
+
+    /**
+     * Resolves several artifacts in a single request, which allows missing artifacts to be downloaded concurrently
+     *
+     * @param coordinates the coordinates of the artifacts
+     * @return the resolved files, in the order of the coordinates
+     * @throws ArtifactResolutionException in case any of the artifacts cannot be resolved
+     */
+    public List<File> download(List<String> coordinates) throws ArtifactResolutionException {
+        List<RemoteRepository> resolutionRepositories = resolutionRepositories();
+        List<ArtifactRequest> requests = coordinates.stream()
+                .map(c -> new ArtifactRequest(new DefaultArtifact(c), resolutionRepositories, null))
+                .collect(Collectors.toList());
+
+        try (Metrics.Timer timer = metrics.start("aether.resolve")) {
+            List<File> files = system.resolveArtifacts(session, requests).stream()
+                    .map(r -> r.getArtifact().getFile())
+                    .collect(Collectors.toList());
+
+            metrics.count("aether.artifacts", files.size());
+            return files;
+        }
+    }
 
-        return fromResult.getArtifact().getFile();
+    // applies the mirrors to the configured repositories
+    private List<RemoteRepository> resolutionRepositories() {
+        return system.newResolutionRepositories(session, repos);
     }
 }
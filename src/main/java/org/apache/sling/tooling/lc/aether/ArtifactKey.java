@@ -18,51 +18,112 @@
  */
 package org.apache.sling.tooling.lc.aether;
 
-import java.util.Objects;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import org.apache.sling.feature.Artifact;
 import org.apache.sling.feature.ArtifactId;
 
-public class ArtifactKey implements Comparable<ArtifactKey> {
+/**
+ * Identifies an artifact independently of its version
+ *
+ * <p>Keys are canonical: {@link #of(String, String, String, String)} returns the same instance for equal coordinates,
+ * so the artifacts of all compared launchpads share their keys and the strings these hold. Canonical keys are only
+ * weakly held, so that a long running process does not keep the keys of every launchpad it ever compared.
+ *
+ * <p>Keys are ordered by group id, artifact id, classifier and type, which is the order of {@link ArtifactId} for
+ * artifacts of the same version.
+ */
+public final class ArtifactKey implements Comparable<ArtifactKey> {
+
+    private static final ConcurrentMap<WeakKey, WeakKey> KEYS = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<ArtifactKey> CLEARED = new ReferenceQueue<>();
+
+    /**
+     * @param id the artifact
+     * @return the canonical key for the artifact
+     */
+    public static ArtifactKey of(ArtifactId id) {
+        return of(id.getGroupId(), id.getArtifactId(), id.getClassifier(), id.getType());
+    }
+
+    /**
+     * @param groupId the group id
+     * @param artifactId the artifact id
+     * @param classifier the classifier, may be <code>null</code>
+     * @param type the type, <tt>jar</tt> if <code>null</code>
+     * @return the canonical key for the coordinates
+     */
+    public static ArtifactKey of(String groupId, String artifactId, String classifier, String type) {
+
+        ArtifactKey key = new ArtifactKey(groupId, artifactId, classifier, type);
+        WeakKey known = KEYS.get(new WeakKey(key, null));
+        ArtifactKey canonical = known != null ? known.get() : null;
+        if (canonical != null) {
+            return canonical;
+        }
+
+        // only keys seen for the first time pay for interning, and for dropping the keys no longer used
+        for (WeakKey cleared; (cleared = (WeakKey) CLEARED.poll()) != null; ) {
+            KEYS.remove(cleared, cleared);
+        }
+        ArtifactKey interned = new ArtifactKey(
+                key.groupId.intern(), key.artifactId.intern(), key.classifier.intern(), key.type.intern());
+        WeakKey reference = new WeakKey(interned, CLEARED);
+        while ((known = KEYS.putIfAbsent(reference, reference)) != null) {
+            canonical = known.get();
+            if (canonical != null) {
+                return canonical;
+            }
+            // cleared since it was found
+            KEYS.remove(known, known);
+        }
+        return interned;
+    }
+
+    static int getCanonicalKeyCount() {
+        return KEYS.size();
+    }
 
     private final String groupId;
     private final String artifactId;
     private final String classifier;
     private final String type;
-
-    public ArtifactKey(Artifact artifact) {
-        this(
-                artifact.getId().getGroupId(),
-                artifact.getId().getArtifactId(),
-                artifact.getId().getClassifier(),
-                artifact.getId().getType());
-    }
+    private final int hash;
 
     private ArtifactKey(String groupId, String artifactId, String classifier, String type) {
         this.groupId = groupId;
         this.artifactId = artifactId;
         this.classifier = classifier != null ? classifier : "";
-        this.type = type;
+        this.type = type != null && !type.isEmpty() && !type.equals("bundle") ? type : "jar";
+        this.hash = 31 * (31 * (31 * this.groupId.hashCode() + this.artifactId.hashCode()) + this.classifier.hashCode())
+                + this.type.hashCode();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(artifactId, classifier, groupId, type);
+        return hash;
     }
 
     @Override
     public boolean equals(Object obj) {
 
+        if (this == obj) {
+            return true;
+        }
+
         if (!(obj instanceof ArtifactKey)) {
             return false;
         }
 
         ArtifactKey other = (ArtifactKey) obj;
 
-        return Objects.equals(artifactId, other.artifactId)
-                && Objects.equals(groupId, other.groupId)
-                && Objects.equals(classifier, other.classifier)
-                && Objects.equals(type, other.type);
+        return hash == other.hash
+                && artifactId.equals(other.artifactId)
+                && groupId.equals(other.groupId)
+                && classifier.equals(other.classifier)
+                && type.equals(other.type);
     }
 
     public String getArtifactId() {
@@ -90,9 +151,59 @@ public class ArtifactKey implements Comparable<ArtifactKey> {
     @Override
     public int compareTo(ArtifactKey o) {
 
-        ArtifactId us = new ArtifactId(groupId, artifactId, "0.0.0", classifier, type);
-        ArtifactId them = new ArtifactId(o.groupId, o.artifactId, "0.0.0", o.classifier, o.type);
+        if (this == o) {
+            return 0;
+        }
+
+        // canonical keys share interned strings, most fields are told apart without comparing characters
+        int result = compare(groupId, o.groupId);
+        if (result == 0) {
+            result = compare(artifactId, o.artifactId);
+        }
+        if (result == 0) {
+            // no classifier is the empty string, which sorts first
+            result = compare(classifier, o.classifier);
+        }
+        if (result == 0) {
+            result = compare(type, o.type);
+        }
+        return result;
+    }
+
+    private static int compare(String ours, String theirs) {
+        return ours == theirs ? 0 : ours.compareTo(theirs);
+    }
+
+    /**
+     * Weakly refers to a canonical key, equal to references to an equal key as long as it is not cleared
+     */
+    private static final class WeakKey extends WeakReference<ArtifactKey> {
 
-        return us.compareTo(them);
+        private final int hash;
+
+        WeakKey(ArtifactKey key, ReferenceQueue<ArtifactKey> queue) {
+            super(key, queue);
+            this.hash = key.hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof WeakKey)) {
+                return false;
+            }
+
+            ArtifactKey key = get();
+            return key != null && key.equals(((WeakKey) obj).get());
+        }
     }
 }
@@ -18,6 +18,9 @@
  */
 package org.apache.sling.tooling.lc.aether;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -25,6 +28,74 @@ public class Artifacts {
 
     private static final Pattern VERSION_NUMBER = Pattern.compile("^(\\d+)(-SNAPSHOT)?");
 
+    private static final Pattern VERSION_RANGE = Pattern.compile("^(\\d+)\\.\\.(\\d+)(-SNAPSHOT)?");
+
+    // groupId:artifactId[:extension[:classifier]]:version
+    private static final Pattern COORDINATES = Pattern.compile("^[^:\\s]+(:[^:\\s]*){1,3}:[^:\\s]+$");
+
+    /**
+     * Expands a list of launchpad versions
+     *
+     * @param spec either a comma-separated list of versions, e.g. <tt>11,12,13-SNAPSHOT</tt>, or a range of versions,
+     *     e.g. <tt>8..13-SNAPSHOT</tt>, where only the last one can be a SNAPSHOT. Lists may also contain feature
+     *     coordinates or local paths, see {@link #featureCoordinates(String)}
+     * @return the versions
+     */
+    public static final List<String> launchpadVersions(String spec) {
+
+        Matcher rangeMatcher = VERSION_RANGE.matcher(spec);
+        if (rangeMatcher.matches()) {
+            int first = Integer.parseInt(rangeMatcher.group(1));
+            int last = Integer.parseInt(rangeMatcher.group(2));
+            if (first >= last) {
+                throw new IllegalArgumentException("Invalid version range " + spec);
+            }
+            List<String> versions = new ArrayList<>();
+            for (int version = first; version < last; version++) {
+                versions.add(String.valueOf(version));
+            }
+            versions.add(last + (rangeMatcher.group(3) != null ? rangeMatcher.group(3) : ""));
+            return versions;
+        }
+
+        List<String> versions = Arrays.asList(spec.split(","));
+        for (String version : versions) {
+            if (version.isEmpty()) {
+                throw new IllegalArgumentException("Invalid version list " + spec);
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Returns the coordinates of a feature to download
+     *
+     * @param version either a launchpad version, e.g. <tt>12</tt>, or the Maven coordinates of any feature, in the
+     *     <tt>groupId:artifactId[:extension[:classifier]]:version</tt> form, e.g.
+     *     <tt>com.example:product:slingosgifeature:aggregate:1.4.0</tt>
+     * @return the coordinates
+     */
+    public static final String featureCoordinates(String version) {
+
+        if (VERSION_NUMBER.matcher(version).matches()) {
+            return launchpadCoordinates(version);
+        }
+        if (COORDINATES.matcher(version).matches()) {
+            return version;
+        }
+        throw new IllegalArgumentException("Invalid version, coordinates or feature location " + version);
+    }
+
+    /**
+     * @param version the version as given by the user
+     * @return <code>true</code> if it is a launchpad version or feature coordinates, which
+     *     {@link #featureCoordinates(String)} accepts, rather than a local path
+     */
+    public static final boolean isDownloadable(String version) {
+        return VERSION_NUMBER.matcher(version).matches()
+                || COORDINATES.matcher(version).matches();
+    }
+
     public static final String launchpadCoordinates(String version) {
 
         Matcher versionMatcher = VERSION_NUMBER.matcher(version);
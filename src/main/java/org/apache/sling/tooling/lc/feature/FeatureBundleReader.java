@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.feature;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+import jakarta.json.stream.JsonParsingException;
+import org.apache.felix.cm.json.io.Configurations;
+import org.apache.sling.feature.ArtifactId;
+import org.apache.sling.tooling.lc.aether.ArtifactKey;
+
+/**
+ * Reads the bundles of a feature model file, without building the full {@link org.apache.sling.feature.Feature}
+ *
+ * <p>Only the <tt>variables</tt> and <tt>bundles</tt> sections are looked at, configurations, framework properties
+ * and extensions are skipped by the streaming parser.
+ */
+public class FeatureBundleReader {
+
+    private static final String VARIABLES = "variables";
+    private static final String BUNDLES = "bundles";
+    private static final String ID = "id";
+
+    private static final Pattern VARIABLE = Pattern.compile("\\$\\{([^}]+)\\}");
+
+    /**
+     * Reads the bundles of a feature
+     *
+     * @param reader the feature JSON, comments are allowed
+     * @param location the location of the feature, used for error reporting
+     * @return the version of each bundle, in the order in which they are listed
+     * @throws IOException in case the feature can not be read or is not valid
+     */
+    public static Map<ArtifactKey, String> read(Reader reader, String location) throws IOException {
+
+        Map<String, String> variables = new HashMap<>();
+        Map<ArtifactKey, String> bundles = new LinkedHashMap<>();
+
+        try (JsonParser parser = Json.createParser(Configurations.jsonCommentAwareReader(reader))) {
+
+            expect(parser, Event.START_OBJECT, location);
+
+            Event event;
+            while ((event = parser.next()) == Event.KEY_NAME) {
+                String name = parser.getString();
+                Event value = parser.next();
+                if (VARIABLES.equals(name) && value == Event.START_OBJECT) {
+                    readVariables(parser, variables, location);
+                } else if (BUNDLES.equals(name) && value == Event.START_ARRAY) {
+                    readBundles(parser, variables, bundles, location);
+                } else {
+                    skip(parser, value);
+                }
+            }
+            if (event != Event.END_OBJECT) {
+                throw new IOException("Unexpected " + event + " in feature " + location);
+            }
+        } catch (JsonParsingException | IllegalArgumentException e) {
+            throw new IOException("Unable to read feature " + location + " : " + e.getMessage(), e);
+        }
+
+        return bundles;
+    }
+
+    private static void readVariables(JsonParser parser, Map<String, String> variables, String location)
+            throws IOException {
+        Event event;
+        while ((event = parser.next()) == Event.KEY_NAME) {
+            String name = parser.getString();
+            Event value = parser.next();
+            if (value == Event.VALUE_STRING || value == Event.VALUE_NUMBER) {
+                variables.put(name, parser.getString());
+            } else {
+                skip(parser, value);
+            }
+        }
+        if (event != Event.END_OBJECT) {
+            throw new IOException("Unexpected " + event + " in variables of feature " + location);
+        }
+    }
+
+    private static void readBundles(
+            JsonParser parser, Map<String, String> variables, Map<ArtifactKey, String> bundles, String location)
+            throws IOException {
+        Event event;
+        while ((event = parser.next()) != Event.END_ARRAY) {
+            String id;
+            if (event == Event.VALUE_STRING) {
+                // short form, just the id
+                id = parser.getString();
+            } else if (event == Event.START_OBJECT) {
+                id = readBundleId(parser, location);
+            } else {
+                throw new IOException("Unexpected " + event + " in bundles of feature " + location);
+            }
+
+            ArtifactId artifactId = ArtifactId.parse(substitute(id, variables));
+            // a bundle listed twice keeps the last version
+            bundles.put(ArtifactKey.of(artifactId), artifactId.getVersion());
+        }
+    }
+
+    private static String readBundleId(JsonParser parser, String location) throws IOException {
+        String id = null;
+        Event event;
+        while ((event = parser.next()) == Event.KEY_NAME) {
+            String name = parser.getString();
+            Event value = parser.next();
+            if (ID.equals(name) && value == Event.VALUE_STRING) {
+                id = parser.getString();
+            } else {
+                skip(parser, value);
+            }
+        }
+        if (event != Event.END_OBJECT || id == null) {
+            throw new IOException("Bundle without id in feature " + location);
+        }
+        return id;
+    }
+
+    private static String substitute(String id, Map<String, String> variables) {
+        if (id.indexOf("${") < 0) {
+            return id;
+        }
+        Matcher matcher = VARIABLE.matcher(id);
+        StringBuffer result = new StringBuffer();
+        while (matcher.find()) {
+            String value = variables.getOrDefault(matcher.group(1), matcher.group());
+            matcher.appendReplacement(result, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private static void skip(JsonParser parser, Event event) {
+        if (event == Event.START_OBJECT) {
+            parser.skipObject();
+        } else if (event == Event.START_ARRAY) {
+            parser.skipArray();
+        }
+    }
+
+    private static void expect(JsonParser parser, Event expected, String location) throws IOException {
+        if (!parser.hasNext() || parser.next() != expected) {
+            throw new IOException("Expected " + expected + " in feature " + location);
+        }
+    }
+}
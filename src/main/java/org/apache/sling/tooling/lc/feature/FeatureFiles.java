@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.feature;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.sling.tooling.lc.aether.ArtifactKey;
+
+/**
+ * Reads the bundles of local features, either single files or directories of features making up an aggregate
+ */
+public class FeatureFiles {
+
+    private static final String EXTENSION = ".json";
+
+    /**
+     * Resolves a feature location given relative to a directory, without allowing it to lead out of that directory
+     *
+     * @param directory the directory holding the features, as a real path
+     * @param location the feature file or directory, relative to <tt>directory</tt>
+     * @return the real path of the location
+     * @throws IllegalArgumentException in case the location does not exist, or it or any link it contains leads out
+     *     of the directory
+     * @throws IOException in case the real path of the location cannot be determined
+     */
+    public static Path resolve(Path directory, String location) throws IOException {
+
+        Path path;
+        try {
+            path = directory.resolve(location).normalize();
+        } catch (InvalidPathException e) {
+            throw new IllegalArgumentException("Invalid feature location " + location);
+        }
+        // links may lead out of the directory as well
+        if (!path.startsWith(directory)
+                || !Files.exists(path)
+                || !path.toRealPath().startsWith(directory)) {
+            throw new IllegalArgumentException("No feature " + location + " in " + directory);
+        }
+        return path.toRealPath();
+    }
+
+    /**
+     * Lists the features at a location
+     *
+     * @param location a feature file, or a directory which is searched recursively for <tt>*.json</tt> files
+     * @return the feature files, sorted by path
+     * @throws IOException in case the directory can not be listed or contains no features
+     */
+    public static List<Path> list(Path location) throws IOException {
+
+        if (!Files.isDirectory(location)) {
+            return Collections.singletonList(location);
+        }
+
+        List<Path> features;
+        try (Stream<Path> files = Files.walk(location)) {
+            features = files.filter(f -> f.getFileName().toString().endsWith(EXTENSION))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        if (features.isEmpty()) {
+            throw new IOException("No features found in " + location);
+        }
+        return features;
+    }
+
+    /**
+     * Reads the bundles of a feature file
+     *
+     * @see FeatureBundleReader#read(java.io.Reader, String)
+     */
+    public static Map<ArtifactKey, String> read(Path feature) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(feature)) {
+            return FeatureBundleReader.read(reader, feature.toString());
+        }
+    }
+
+    /**
+     * Merges the bundles of several features into one
+     *
+     * <p>When features list the same bundle in different versions, the feature coming last wins, as the versions can
+     * not be reliably ordered. Each such conflict is reported in <tt>conflicts</tt>.
+     *
+     * @param features the bundles of each feature, in order
+     * @param conflicts receives a description of the bundles listed in different versions
+     * @return the merged bundles
+     */
+    public static Map<ArtifactKey, String> merge(List<Map<ArtifactKey, String>> features, List<String> conflicts) {
+
+        if (features.size() == 1) {
+            return features.get(0);
+        }
+
+        Map<ArtifactKey, String> merged = new LinkedHashMap<>();
+        for (Map<ArtifactKey, String> feature : features) {
+            for (Map.Entry<ArtifactKey, String> bundle : feature.entrySet()) {
+                String previous = merged.put(bundle.getKey(), bundle.getValue());
+                if (previous != null && !Objects.equals(previous, bundle.getValue())) {
+                    conflicts.add(
+                            bundle.getKey().getGroupId() + ":" + bundle.getKey().getArtifactId() + " is listed as both "
+                                    + previous + " and " + bundle.getValue());
+                }
+            }
+        }
+        return merged;
+    }
+}
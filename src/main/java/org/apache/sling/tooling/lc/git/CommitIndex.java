@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.git;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.eclipse.jgit.lib.ObjectId;
+
+/**
+ * Persists the commits of a repository between consecutive release tags of an artifact
+ *
+ * <p>Each tag is mapped to the commits reachable from it but not from the tag of the previous version, together with
+ * the issue keys found in their messages. A segment stays valid as long as both tags point to the same commits and the
+ * artifact's path is unchanged, so new or moved tags only cause the affected segments to be computed again. The issue
+ * keys depend on the projects scanned for, so an index built for other projects is discarded.</p>
+ */
+class CommitIndex {
+
+    private static final Gson GSON = new Gson();
+
+    static CommitIndex open(Path file, String issueProjects) throws IOException {
+        CommitIndex index = new CommitIndex(file, issueProjects);
+        index.load();
+        return index;
+    }
+
+    private final Path file;
+    private final String issueProjects;
+    private final Map<String, Segment> segments = new HashMap<>();
+    private boolean modified;
+
+    private CommitIndex(Path file, String issueProjects) {
+        this.file = file;
+        this.issueProjects = issueProjects;
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Stored stored = GSON.fromJson(reader, Stored.class);
+            if (stored != null && Objects.equals(stored.issueProjects, issueProjects) && stored.segments != null) {
+                segments.putAll(stored.segments);
+            }
+        } catch (JsonParseException e) {
+            // the segments can be computed again, so a broken index is not worth failing the run for
+            System.err.println("Ignoring unreadable commit index " + file + " : " + e.getMessage());
+        }
+    }
+
+    synchronized void save() throws IOException {
+        if (!modified) {
+            return;
+        }
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            GSON.toJson(new Stored(issueProjects, segments), writer);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        modified = false;
+    }
+
+    /**
+     * @return the segment of the tag, or <code>null</code> if it was not computed for the given tags and path
+     */
+    synchronized Segment get(String tag, ObjectId commit, String previousTag, ObjectId previousCommit, String path) {
+        Segment segment = segments.get(tag);
+        if (segment == null
+                || !commit.name().equals(segment.commit)
+                || !previousTag.equals(segment.previousTag)
+                || !previousCommit.name().equals(segment.previousCommit)
+                || !Objects.equals(path, segment.path)) {
+            return null;
+        }
+        return segment;
+    }
+
+    synchronized void put(String tag, Segment segment) {
+        segments.put(tag, segment);
+        modified = true;
+    }
+
+    synchronized int size() {
+        return segments.size();
+    }
+
+    /**
+     * The commits between a tag and the tag of the previous version
+     */
+    static final class Segment {
+
+        private final String commit;
+        private final String previousTag;
+        private final String previousCommit;
+        private final String path;
+        private final boolean linear;
+        private final List<String> commits;
+        private final List<String> messages;
+        private final List<String> issueKeys;
+
+        /**
+         * @param linear <code>false</code> if the previous tag is not an ancestor of the tag, in which case the
+         *     segment cannot be combined with others and holds no commits
+         */
+        Segment(
+                ObjectId commit,
+                String previousTag,
+                ObjectId previousCommit,
+                String path,
+                boolean linear,
+                List<String> commits,
+                List<String> messages,
+                List<String> issueKeys) {
+            this.commit = commit.name();
+            this.previousTag = previousTag;
+            this.previousCommit = previousCommit.name();
+            this.path = path;
+            this.linear = linear;
+            this.commits = commits;
+            this.messages = messages;
+            this.issueKeys = issueKeys;
+        }
+
+        boolean isLinear() {
+            return linear;
+        }
+
+        /**
+         * @return the ids of the commits, newest first
+         */
+        List<String> getCommits() {
+            return commits;
+        }
+
+        /**
+         * @return the short messages of the commits, newest first
+         */
+        List<String> getMessages() {
+            return messages;
+        }
+
+        List<String> getIssueKeys() {
+            return issueKeys;
+        }
+    }
+
+    private static final class Stored {
+
+        private final String issueProjects;
+        private final Map<String, Segment> segments;
+
+        Stored(String issueProjects, Map<String, Segment> segments) {
+            this.issueProjects = issueProjects;
+            this.segments = new HashMap<>(segments);
+        }
+    }
+}
@@ -18,72 +18,586 @@
  */
 package org.apache.sling.tooling.lc.git;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import org.eclipse.jgit.api.Git;
+import org.apache.sling.tooling.lc.jira.IssueKeyScanner;
+import org.apache.sling.tooling.lc.metrics.Metrics;
 import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.lib.Constants;
-import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Repository;
-import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
 
-public class GitChangeLogFinder {
+public class GitChangeLogFinder implements Closeable {
 
     public static void main(String[] args) throws IOException, GitAPIException {
-        new GitChangeLogFinder("..")
-                .getChanges("org.apache.sling.adapter", "2.1.2", "2.1.6").stream()
-                        .forEach(System.out::println);
+        try (GitChangeLogFinder finder = new GitChangeLogFinder("..")) {
+            finder.getChanges("org.apache.sling.adapter", "2.1.2", "2.1.6").stream()
+                    .forEach(System.out::println);
+        }
     }
 
-    private final String slingRepoCheckoutDir;
+    public static final String DEFAULT_COMMIT_INDEX_LOCATION = "target/commit-index";
+
+    // the idle walks kept per repository, any others are closed when released
+    private static final int MAX_IDLE_WALKS = 2;
+
+    private final RepositoryRegistry repositories;
+    private final ConcurrentMap<String, Queue<RevWalk>> walks = new ConcurrentHashMap<>();
+    private Metrics metrics = Metrics.DISABLED;
+    private IssueKeyScanner issueKeys;
+    private Path commitIndexDirectory;
+    private final ConcurrentMap<String, CommitIndex> commitIndexes = new ConcurrentHashMap<>();
 
     /**
      * @param slingRepoCheckoutDir the repo root for Apache Sling
      */
     public GitChangeLogFinder(String slingRepoCheckoutDir) {
-        this.slingRepoCheckoutDir = slingRepoCheckoutDir;
+        this(new RepositoryRegistry(slingRepoCheckoutDir));
+    }
+
+    /**
+     * @param repositories the registry of open repositories, closed together with this instance
+     */
+    public GitChangeLogFinder(RepositoryRegistry repositories) {
+        this.repositories = repositories;
+    }
+
+    /**
+     * @param metrics records the time spent per artifact and the commits walked
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
     }
 
+    /**
+     * @param issueKeys extracts the issue keys from the full commit messages, none are extracted if not set
+     */
+    public void setIssueKeyScanner(IssueKeyScanner issueKeys) {
+        this.issueKeys = issueKeys;
+    }
+
+    /**
+     * @param commitIndexDirectory where the commits between release tags are stored per repository, so that they are
+     *     only walked once; not stored if not set
+     */
+    public void setCommitIndexDirectory(Path commitIndexDirectory) {
+        this.commitIndexDirectory = commitIndexDirectory;
+    }
+
+    private CommitIndex getCommitIndex(String repositoryName) throws IOException {
+        if (commitIndexDirectory == null) {
+            return null;
+        }
+        try {
+            return commitIndexes.computeIfAbsent(repositoryName, name -> {
+                try {
+                    return CommitIndex.open(
+                            commitIndexDirectory.resolve(name.replaceAll("[^A-Za-z0-9._-]", "_") + ".json"),
+                            issueKeys != null ? issueKeys.getProjects() : "");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Writes the commit indexes changed since they were opened
+     *
+     * @throws IOException in case an index cannot be written
+     */
+    public void save() throws IOException {
+        for (CommitIndex index : commitIndexes.values()) {
+            index.save();
+        }
+    }
+
+    /**
+     * Lists the commits between two released versions of an artifact
+     *
+     * <p>If one of the versions was not tagged the tag of the nearest version is used instead.</p>
+     *
+     * @param artifactId the artifact id
+     * @param from the old version, exclusive
+     * @param to the new version, inclusive
+     * @return the short messages of the commits, newest first
+     * @throws IOException in case the repository cannot be read or has no release tags for the artifact
+     * @throws GitAPIException in case walking the history fails
+     */
     public List<String> getChanges(String artifactId, String from, String to) throws IOException, GitAPIException {
+        Range range = new Range(artifactId, from, to);
+        return getChanges(Collections.singletonList(range)).get(range);
+    }
+
+    /**
+     * Lists the commits of several artifacts between two of their released versions
+     *
+     * <p>Ranges in the same repository are walked together: each commit is read once, and for artifacts sharing an
+     * aggregated repository each commit is checked once per path for changes.</p>
+     *
+     * @param ranges the artifact versions to compare
+     * @return the short messages of the commits of each range, newest first
+     * @throws IOException in case a repository cannot be read or has no release tags for an artifact
+     * @throws GitAPIException in case walking the history fails
+     */
+    public Map<Range, List<String>> getChanges(Collection<Range> ranges) throws IOException, GitAPIException {
+        Map<Range, List<String>> changes = new HashMap<>();
+        for (Map.Entry<Range, Commits> commits : getCommits(ranges).entrySet()) {
+            if (commits.getValue().getFailure() != null) {
+                throw commits.getValue().getFailure();
+            }
+            changes.put(commits.getKey(), commits.getValue().getMessages());
+        }
+        return changes;
+    }
+
+    /**
+     * Lists the commits of several artifacts between two of their released versions, together with the issue keys
+     * referenced anywhere in their messages
+     *
+     * <p>The ranges of each repository are walked in a single pass over its history. A range which cannot be walked,
+     * for example because the artifact has no release tags, only fails on its own, see
+     * {@link Commits#getFailure()}.</p>
+     *
+     * @param ranges the artifact versions to compare
+     * @return the commits of each range
+     * @see #setIssueKeyScanner(IssueKeyScanner)
+     */
+    public Map<Range, Commits> getCommits(Collection<Range> ranges) {
+
+        Map<String, List<Range>> rangesByRepository = new LinkedHashMap<>();
+        for (Range range : ranges) {
+            rangesByRepository
+                    .computeIfAbsent(
+                            repositories.getMapping().getRepository(range.getArtifactId()), r -> new ArrayList<>())
+                    .add(range);
+        }
+
+        Map<Range, Commits> changes = new HashMap<>();
+        for (Map.Entry<String, List<Range>> repositoryRanges : rangesByRepository.entrySet()) {
+            walk(repositoryRanges.getKey(), repositoryRanges.getValue(), changes);
+        }
+        return changes;
+    }
+
+    private void walk(String repositoryName, List<Range> ranges, Map<Range, Commits> changes) {
+
+        String firstArtifactId = ranges.get(0).getArtifactId();
+        RevWalk walk;
+        TagIndex tags;
+        CommitIndex index;
+        try {
+            Repository repository = repositories.get(firstArtifactId);
+            tags = repositories.getTags(firstArtifactId);
+            index = getCommitIndex(repositoryName);
+            walk = borrowWalk(repositoryName, repository);
+        } catch (IOException e) {
+            ranges.forEach(range -> changes.put(range, Commits.failed(e)));
+            return;
+        }
+
+        try (Metrics.Timer timer = metrics.start("git.changes")) {
+            PathChanges pathChanges = new PathChanges(walk);
+
+            // an artifact without release tags only fails its own range
+            Map<Range, String[]> versions = new LinkedHashMap<>();
+            for (Range range : ranges) {
+                try {
+                    versions.put(range, new String[] {
+                        tags.resolveVersion(range.getArtifactId(), range.getFrom()),
+                        tags.resolveVersion(range.getArtifactId(), range.getTo())
+                    });
+                } catch (IOException e) {
+                    changes.put(range, Commits.failed(e));
+                }
+            }
+
+            // the segments missing from the commit index are computed together, in one pass
+            if (index != null) {
+                Map<String, Link> missing = new LinkedHashMap<>();
+                for (Map.Entry<Range, String[]> range : versions.entrySet()) {
+                    List<Link> chain = chain(tags, range.getKey().getArtifactId(), range.getValue());
+                    if (chain != null) {
+                        for (Link link : chain) {
+                            if (index.get(link.tag, link.commit, link.previousTag, link.previousCommit, link.path)
+                                    == null) {
+                                missing.putIfAbsent(link.tag, link);
+                            }
+                        }
+                    }
+                }
+                if (!missing.isEmpty()) {
+                    indexSegments(walk, pathChanges, index, missing.values());
+                }
+            }
+
+            // the ranges which the index cannot answer are walked together, in one more pass
+            Map<Range, Link> unindexed = new LinkedHashMap<>();
+            for (Map.Entry<Range, String[]> range : versions.entrySet()) {
+                String artifactId = range.getKey().getArtifactId();
+                Commits commits = index != null ? fromIndex(index, chain(tags, artifactId, range.getValue())) : null;
+                if (commits != null) {
+                    metrics.count("git.index.hits", 1);
+                    changes.put(range.getKey(), commits);
+                } else {
+                    unindexed.put(
+                            range.getKey(),
+                            new Link(
+                                    null,
+                                    tags.find(artifactId, range.getValue()[1]),
+                                    null,
+                                    tags.find(artifactId, range.getValue()[0]),
+                                    repositories.getMapping().getPath(artifactId)));
+                }
+            }
+            if (!unindexed.isEmpty()) {
+                try {
+                    List<Commits> walked = walkTogether(walk, pathChanges, new ArrayList<>(unindexed.values()));
+                    int i = 0;
+                    for (Range range : unindexed.keySet()) {
+                        changes.put(range, walked.get(i++));
+                    }
+                } catch (IOException e) {
+                    unindexed.keySet().forEach(range -> changes.put(range, Commits.failed(e)));
+                }
+            }
+
+            releaseWalk(repositoryName, walk);
+        } catch (RuntimeException e) {
+            walk.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The commits between the tag of a version and the tag of the previous version
+     */
+    private static final class Link {
+
+        private final String tag;
+        private final ObjectId commit;
+        private final String previousTag;
+        private final ObjectId previousCommit;
+        private final String path;
+
+        Link(String tag, ObjectId commit, String previousTag, ObjectId previousCommit, String path) {
+            this.tag = tag;
+            this.commit = commit;
+            this.previousTag = previousTag;
+            this.previousCommit = previousCommit;
+            this.path = path;
+        }
+    }
+
+    /**
+     * @param versions the tagged old and new version
+     * @return the tags from the new version down to the old one, or <code>null</code> if the old version is not on
+     *     the chain of previous versions
+     */
+    private List<Link> chain(TagIndex tags, String artifactId, String[] versions) {
+
+        String path = repositories.getMapping().getPath(artifactId);
+        List<Link> chain = new ArrayList<>();
+        String version = versions[1];
+        while (!version.equals(versions[0])) {
+            String previous = tags.previousVersion(artifactId, version);
+            if (previous == null || TagIndex.isLower(previous, versions[0])) {
+                return null;
+            }
+            chain.add(new Link(
+                    artifactId + "-" + version,
+                    tags.find(artifactId, version),
+                    artifactId + "-" + previous,
+                    tags.find(artifactId, previous),
+                    path));
+            version = previous;
+        }
+        return chain;
+    }
+
+    /**
+     * Combines the indexed segments of a chain of tags
+     *
+     * @return the commits, or <code>null</code> if there is no chain, a segment is missing or the history between two
+     *     of the tags is not linear
+     */
+    private static Commits fromIndex(CommitIndex index, List<Link> chain) {
+        if (chain == null) {
+            return null;
+        }
+
+        List<String> ids = new ArrayList<>();
+        List<String> messages = new ArrayList<>();
+        Set<String> keys = new LinkedHashSet<>();
+        for (Link link : chain) {
+            CommitIndex.Segment segment =
+                    index.get(link.tag, link.commit, link.previousTag, link.previousCommit, link.path);
+            if (segment == null || !segment.isLinear()) {
+                return null;
+            }
+            ids.addAll(segment.getCommits());
+            messages.addAll(segment.getMessages());
+            keys.addAll(segment.getIssueKeys());
+        }
+        return new Commits(ids, messages, keys);
+    }
 
-        Path repoPath = Paths.get(slingRepoCheckoutDir, artifactId.replace('.', '-'), ".git");
+    private void indexSegments(RevWalk walk, PathChanges pathChanges, CommitIndex index, Collection<Link> links) {
 
-        FileRepositoryBuilder repositoryBuilder = new FileRepositoryBuilder();
+        List<Link> segments = new ArrayList<>(links);
+        List<Commits> walked;
+        MultiRangeWalk ranges = new MultiRangeWalk(walk);
+        try {
+            walked = walkTogether(walk, ranges, pathChanges, segments);
+        } catch (IOException e) {
+            // the ranges are walked again without the index, and fail there if the history cannot be read
+            return;
+        }
+
+        for (int i = 0; i < segments.size(); i++) {
+            Link link = segments.get(i);
+            boolean linear = ranges.isLinear(i);
+            Commits commits = walked.get(i);
+            index.put(
+                    link.tag,
+                    new CommitIndex.Segment(
+                            link.commit,
+                            link.previousTag,
+                            link.previousCommit,
+                            link.path,
+                            linear,
+                            linear ? commits.getIds() : Collections.emptyList(),
+                            linear ? commits.getMessages() : Collections.emptyList(),
+                            linear ? new ArrayList<>(commits.getIssueKeys()) : Collections.emptyList()));
+            metrics.count("git.index.segments", 1);
+        }
+    }
 
-        try (Repository repository = repositoryBuilder
-                .setGitDir(repoPath.toFile())
-                .readEnvironment() // scan environment GIT_* variables
-                .findGitDir() // scan up the file system tree
-                .setMustExist(true)
-                .build()) {
+    private List<Commits> walkTogether(RevWalk walk, PathChanges pathChanges, List<Link> links) throws IOException {
+        return walkTogether(walk, new MultiRangeWalk(walk), pathChanges, links);
+    }
 
-            Ref fromTag = getTagChecked(repository, artifactId, from);
-            Ref toTag = getTagChecked(repository, artifactId, to);
+    /**
+     * Lists the commits reachable from the new end of each link but not from its old end, in a single pass
+     */
+    private List<Commits> walkTogether(RevWalk walk, MultiRangeWalk ranges, PathChanges pathChanges, List<Link> links)
+            throws IOException {
 
-            Git git = Git.wrap(repository);
+        for (Link link : links) {
+            ranges.add(link.commit, link.previousCommit);
+        }
+        metrics.count("git.commits", ranges.run());
 
-            fromTag = repository.getRefDatabase().peel(fromTag);
-            toTag = repository.getRefDatabase().peel(toTag);
+        // the message and keys of a commit listed for several ranges are only read once
+        Map<RevCommit, Set<String>> keysByCommit = new HashMap<>();
+        Map<RevCommit, String> messageByCommit = new HashMap<>();
+        List<Commits> result = new ArrayList<>();
+        for (int i = 0; i < links.size(); i++) {
+            String path = links.get(i).path;
+            List<String> ids = new ArrayList<>();
+            List<String> messages = new ArrayList<>();
+            Set<String> keys = new LinkedHashSet<>();
+            for (RevCommit commit : ranges.getCommits(i)) {
+                if (path != null && !pathChanges.changes(commit, path)) {
+                    continue;
+                }
+                if (!messageByCommit.containsKey(commit)) {
+                    // the walk does not retain bodies
+                    walk.parseBody(commit);
+                    Set<String> commitKeys = new LinkedHashSet<>();
+                    if (issueKeys != null) {
+                        issueKeys.scan(commit.getFullMessage(), commitKeys);
+                    }
+                    messageByCommit.put(commit, commit.getShortMessage());
+                    keysByCommit.put(commit, commitKeys);
+                    commit.disposeBody();
+                }
+                ids.add(commit.name());
+                messages.add(messageByCommit.get(commit));
+                keys.addAll(keysByCommit.get(commit));
+            }
+            result.add(new Commits(ids, messages, keys));
+        }
+        return result;
+    }
 
-            List<String> commits = new ArrayList<>();
-            git.log()
-                    .addRange(fromTag.getPeeledObjectId(), toTag.getPeeledObjectId())
-                    .call()
-                    .forEach(c -> commits.add(c.getShortMessage()));
-            return commits;
+    /**
+     * A few walks are kept per repository and reused, along with their object readers
+     */
+    private RevWalk borrowWalk(String repositoryName, Repository repository) {
+        RevWalk walk = walks.computeIfAbsent(repositoryName, id -> new ArrayBlockingQueue<>(MAX_IDLE_WALKS))
+                .poll();
+        if (walk != null) {
+            return walk;
         }
+        // pooled walks keep headers only, bodies are parsed for the commits listed and disposed right after
+        walk = new RevWalk(repository);
+        walk.setRetainBody(false);
+        return walk;
     }
 
-    private Ref getTagChecked(Repository repository, String artifactId, String version) throws IOException {
+    private void releaseWalk(String repositoryName, RevWalk walk) {
+        // unlike reset(), dispose() also drops the parsed commits, which would otherwise stay reachable for as long as
+        // the walk is pooled
+        walk.dispose();
+        if (!walks.get(repositoryName).offer(walk)) {
+            walk.close();
+        }
+    }
+
+    /**
+     * @return the directory of the artifact's repository, shared by all artifacts in the same repository
+     */
+    public String getRepository(String artifactId) {
+        return repositories.getMapping().getRepository(artifactId);
+    }
+
+    /**
+     * @return <code>true</code> if the artifact version was tagged, i.e. its changes can be computed exactly
+     * @throws IOException in case the repository cannot be read
+     */
+    public boolean isTagged(String artifactId, String version) throws IOException {
+        return repositories.getTags(artifactId).find(artifactId, version) != null;
+    }
+
+    /**
+     * The versions of an artifact to list the commits between
+     */
+    public static final class Range {
+
+        private final String artifactId;
+        private final String from;
+        private final String to;
+
+        /**
+         * @param artifactId the artifact id
+         * @param from the old version, exclusive
+         * @param to the new version, inclusive
+         */
+        public Range(String artifactId, String from, String to) {
+            this.artifactId = artifactId;
+            this.from = from;
+            this.to = to;
+        }
+
+        public String getArtifactId() {
+            return artifactId;
+        }
+
+        public String getFrom() {
+            return from;
+        }
+
+        public String getTo() {
+            return to;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(artifactId, from, to);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Range)) {
+                return false;
+            }
+            Range other = (Range) obj;
+            return artifactId.equals(other.artifactId) && from.equals(other.from) && to.equals(other.to);
+        }
+
+        @Override
+        public String toString() {
+            return artifactId + " " + from + " -> " + to;
+        }
+    }
+
+    /**
+     * The commits found for a {@link Range}
+     */
+    public static final class Commits {
+
+        private final List<String> ids;
+        private final List<String> messages;
+        private final Set<String> issueKeys;
+        private final IOException failure;
+
+        Commits(List<String> ids, List<String> messages, Set<String> issueKeys) {
+            this(ids, messages, issueKeys, null);
+        }
+
+        private Commits(List<String> ids, List<String> messages, Set<String> issueKeys, IOException failure) {
+            this.ids = ids;
+            this.messages = messages;
+            this.issueKeys = issueKeys;
+            this.failure = failure;
+        }
+
+        static Commits failed(IOException failure) {
+            return new Commits(Collections.emptyList(), Collections.emptyList(), Collections.emptySet(), failure);
+        }
+
+        /**
+         * @return why the commits could not be listed, or <code>null</code> if they were
+         */
+        public IOException getFailure() {
+            return failure;
+        }
+
+        /**
+         * @return the ids of the commits, newest first
+         */
+        List<String> getIds() {
+            return ids;
+        }
+
+        /**
+         * @return the short messages of the commits, newest first
+         */
+        public List<String> getMessages() {
+            return messages;
+        }
+
+        /**
+         * @return the issue keys referenced by the commits, without duplicates
+         */
+        public Set<String> getIssueKeys() {
+            return issueKeys;
+        }
+    }
+
+    /**
+     * Picks up the tags created or fetched since the repositories were first used
+     */
+    public void refresh() {
+        repositories.refreshTags();
+    }
 
-        final String tagName = artifactId + "-" + version;
-        final Ref ref = repository.getRefDatabase().findRef(Constants.R_TAGS + tagName);
-        if (ref == null)
-            throw new RuntimeException("No tag " + tagName + " found in git repo at " + repository.getDirectory());
-        return ref;
+    @Override
+    public void close() {
+        walks.values().forEach(w -> w.forEach(RevWalk::close));
+        walks.clear();
+        commitIndexes.clear();
+        repositories.close();
     }
 }
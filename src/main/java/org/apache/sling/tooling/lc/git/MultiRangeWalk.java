@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.git;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+/**
+ * Lists the commits of several ranges in a single pass over the history
+ *
+ * <p>Commits are visited newest first, starting from the tips of all ranges. Each commit carries the ranges whose new
+ * end reaches it and those whose old end reaches it, which are handed down to its parents. A commit belongs to a range
+ * if it is reached from the range's new end but not from its old end, the same as <tt>git log from..to</tt>. The walk
+ * ends once no pending commit belongs to any range, plus a few commits in case of clock skew. Ranges are only assigned
+ * their commits at the end, so commits visited before a late old end reaches them are not listed.</p>
+ *
+ * <p>The {@link RevWalk} is only used to parse commits, it is not iterated and needs no reset.</p>
+ */
+class MultiRangeWalk {
+
+    // same as JGit, commits keep being visited for a while after the last one belonging to a range
+    private static final int OVER_SCAN = 6;
+
+    private final RevWalk walk;
+    private final List<RevCommit> tips = new ArrayList<>();
+    private final List<RevCommit> ends = new ArrayList<>();
+    private final Map<RevCommit, Reach> reached = new HashMap<>();
+    private final List<Reach> visited = new ArrayList<>();
+    private final PriorityQueue<Reach> pending = new PriorityQueue<>(
+            Comparator.comparingInt((Reach r) -> -r.commit.getCommitTime()).thenComparingLong(r -> r.sequence));
+    private long sequence;
+    private int livePending;
+
+    MultiRangeWalk(RevWalk walk) {
+        this.walk = walk;
+    }
+
+    /**
+     * @param to the new end of the range, inclusive
+     * @param from the old end of the range, exclusive
+     * @return the number of the range
+     * @throws IOException in case one of the commits cannot be read
+     */
+    int add(ObjectId to, ObjectId from) throws IOException {
+        RevCommit tip = walk.parseCommit(to);
+        RevCommit end = walk.parseCommit(from);
+        int range = tips.size();
+        tips.add(tip);
+        ends.add(end);
+
+        BitSet bit = new BitSet();
+        bit.set(range);
+        reach(tip, bit, new BitSet());
+        reach(end, new BitSet(), bit);
+        return range;
+    }
+
+    /**
+     * @return the number of commits visited
+     * @throws IOException in case the history cannot be read
+     */
+    int run() throws IOException {
+        int overScan = OVER_SCAN;
+        while (!pending.isEmpty()) {
+            if (livePending > 0) {
+                overScan = OVER_SCAN;
+            } else if (overScan-- == 0) {
+                break;
+            }
+
+            Reach current = pending.poll();
+            if (current.isLive()) {
+                livePending--;
+            }
+            current.queued = false;
+            visited.add(current);
+
+            for (RevCommit parent : current.commit.getParents()) {
+                reach(parent, current.fromTips, current.fromEnds);
+            }
+        }
+        return visited.size();
+    }
+
+    /**
+     * @return the commits of the range, newest first
+     */
+    List<RevCommit> getCommits(int range) {
+        List<RevCommit> commits = new ArrayList<>();
+        for (Reach reach : visited) {
+            if (reach.fromTips.get(range) && !reach.fromEnds.get(range)) {
+                commits.add(reach.commit);
+            }
+        }
+        return commits;
+    }
+
+    /**
+     * @return <code>true</code> if the old end of the range is an ancestor of its new end
+     */
+    boolean isLinear(int range) {
+        return reached.get(ends.get(range)).fromTips.get(range);
+    }
+
+    private void reach(RevCommit commit, BitSet fromTips, BitSet fromEnds) throws IOException {
+        Reach reach = reached.get(commit);
+        if (reach == null) {
+            walk.parseHeaders(commit);
+            reach = new Reach(commit, sequence++);
+            reached.put(commit, reach);
+            reach.queued = true;
+            pending.add(reach);
+        }
+        add(reach, fromTips, fromEnds);
+    }
+
+    /**
+     * Adds to the ranges reaching the commit, and to those of its ancestors already visited
+     */
+    private void add(Reach target, BitSet fromTips, BitSet fromEnds) {
+        Deque<Reach> changed = new ArrayDeque<>();
+        if (merge(target, fromTips, fromEnds)) {
+            changed.add(target);
+        }
+        while (!changed.isEmpty()) {
+            Reach reach = changed.poll();
+            if (reach.queued) {
+                // handed down to the parents once visited
+                continue;
+            }
+            for (RevCommit parent : reach.commit.getParents()) {
+                Reach parentReach = reached.get(parent);
+                if (parentReach != null && merge(parentReach, reach.fromTips, reach.fromEnds)) {
+                    changed.add(parentReach);
+                }
+            }
+        }
+    }
+
+    private boolean merge(Reach target, BitSet fromTips, BitSet fromEnds) {
+        boolean wasLive = target.queued && target.isLive();
+        int tipCount = target.fromTips.cardinality();
+        int endCount = target.fromEnds.cardinality();
+        target.fromTips.or(fromTips);
+        target.fromEnds.or(fromEnds);
+        if (target.queued) {
+            livePending += (target.isLive() ? 1 : 0) - (wasLive ? 1 : 0);
+        }
+        return target.fromTips.cardinality() != tipCount || target.fromEnds.cardinality() != endCount;
+    }
+
+    private static final class Reach {
+
+        private final RevCommit commit;
+        private final long sequence;
+        private final BitSet fromTips = new BitSet();
+        private final BitSet fromEnds = new BitSet();
+        private boolean queued;
+
+        Reach(RevCommit commit, long sequence) {
+            this.commit = commit;
+            this.sequence = sequence;
+        }
+
+        // reached from the new end but not the old end of a range
+        boolean isLive() {
+            for (int i = fromTips.nextSetBit(0); i >= 0; i = fromTips.nextSetBit(i + 1)) {
+                if (!fromEnds.get(i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
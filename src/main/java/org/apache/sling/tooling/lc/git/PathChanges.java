@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.git;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+
+/**
+ * Tells which commits changed a path, looking up the tree of each commit and path only once
+ *
+ * <p>Used for artifacts sharing an aggregated repository, where each commit is checked against the paths of all
+ * artifacts whose range contains it.</p>
+ */
+class PathChanges {
+
+    private final RevWalk walk;
+    private final Map<RevCommit, Map<String, ObjectId>> treeIds = new HashMap<>();
+
+    PathChanges(RevWalk walk) {
+        this.walk = walk;
+    }
+
+    /**
+     * A commit changed the path if the path differs from every one of its parents, so a merge which took the path
+     * from one of its parents did not change it
+     *
+     * <p>Unlike <tt>git log -- path</tt>, this does not simplify the history: the commits of a side branch which changed
+     * the path still count when a merge took the path from its other parent, leaving those changes out.</p>
+     *
+     * @return <code>true</code> if the commit changed anything below the path
+     * @throws IOException in case the trees cannot be read
+     */
+    boolean changes(RevCommit commit, String path) throws IOException {
+
+        ObjectId treeId = treeId(commit, path);
+        for (RevCommit parent : commit.getParents()) {
+            if (Objects.equals(treeId, treeId(parent, path))) {
+                return false;
+            }
+        }
+        return commit.getParentCount() > 0 || treeId != null;
+    }
+
+    private ObjectId treeId(RevCommit commit, String path) throws IOException {
+
+        Map<String, ObjectId> commitTreeIds = treeIds.computeIfAbsent(commit, c -> new HashMap<>());
+        if (commitTreeIds.containsKey(path)) {
+            return commitTreeIds.get(path);
+        }
+
+        walk.parseHeaders(commit);
+        ObjectId treeId;
+        try (TreeWalk treeWalk = TreeWalk.forPath(walk.getObjectReader(), path, commit.getTree())) {
+            treeId = treeWalk != null ? treeWalk.getObjectId(0) : null;
+        }
+        commitTreeIds.put(path, treeId);
+        return treeId;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.git;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Maps artifacts to the git repositories, and the paths within these, holding their sources
+ *
+ * <p>By default each artifact has its own repository, named after the artifact id with dots replaced by dashes. A
+ * mapping file lists the exceptions, e.g. modules aggregated in a single repository, as properties:
+ *
+ * <pre>
+ * org.apache.sling.api = sling-modules::bundles/api
+ * org.apache.sling.engine = sling-modules::bundles/engine
+ * # everything else, {artifactId} is replaced with the artifact id
+ * * = sling-modules::{artifactId}
+ * </pre>
+ *
+ * <p>Repositories are relative to the checkout directory; without <tt>::path</tt> the whole repository belongs to the
+ * artifact.
+ */
+public class RepositoryMapping {
+
+    public static final RepositoryMapping DEFAULT = new RepositoryMapping(Collections.emptyMap());
+
+    private static final String ANY_ARTIFACT = "*";
+    private static final String ARTIFACT_ID = "{artifactId}";
+    private static final String PATH_SEPARATOR = "::";
+
+    /**
+     * @param file the mapping file
+     * @return the mapping
+     * @throws IOException in case the file cannot be read
+     */
+    public static RepositoryMapping load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        Map<String, String> locations = new HashMap<>();
+        properties
+                .stringPropertyNames()
+                .forEach(
+                        name -> locations.put(name, properties.getProperty(name).trim()));
+        return new RepositoryMapping(locations);
+    }
+
+    private final Map<String, String> locations;
+
+    RepositoryMapping(Map<String, String> locations) {
+        this.locations = locations;
+    }
+
+    /**
+     * @return the directory of the artifact's repository, relative to the checkout directory
+     */
+    public String getRepository(String artifactId) {
+        String location = getLocation(artifactId);
+        if (location == null) {
+            return artifactId.replace('.', '-');
+        }
+        int separator = location.indexOf(PATH_SEPARATOR);
+        return separator == -1 ? location : location.substring(0, separator);
+    }
+
+    /**
+     * @return the path of the artifact's sources within its repository, <code>null</code> if it has a repository of
+     *     its own
+     */
+    public String getPath(String artifactId) {
+        String location = getLocation(artifactId);
+        if (location == null) {
+            return null;
+        }
+        int separator = location.indexOf(PATH_SEPARATOR);
+        if (separator == -1) {
+            return null;
+        }
+        // tree walks expect paths without leading or trailing slashes
+        String path = location.substring(separator + PATH_SEPARATOR.length()).replaceAll("^/+|/+$", "");
+        return path.isEmpty() ? null : path;
+    }
+
+    private String getLocation(String artifactId) {
+        String location = locations.get(artifactId);
+        if (location == null) {
+            location = locations.get(ANY_ARTIFACT);
+        }
+        return location != null ? location.replace(ARTIFACT_ID, artifactId) : null;
+    }
+}
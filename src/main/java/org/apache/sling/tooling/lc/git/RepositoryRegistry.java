@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.git;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.storage.file.WindowCacheConfig;
+
+/**
+ * Opens the git repository of each Sling module at most once and keeps it open until the registry is closed
+ *
+ * <p>Open repositories keep their pack indexes and object caches, so repeated lookups in the same repository don't pay
+ * for loading them again. Repositories are looked up by artifact id and expected at
+ * <tt>$slingRepoCheckoutDir/$artifactId/.git</tt>, with dots in the artifact id replaced by dashes, unless a
+ * {@link RepositoryMapping} says otherwise. Artifacts mapped to the same repository share it.</p>
+ */
+public class RepositoryRegistry implements Closeable {
+
+    /**
+     * Replaces the process-wide JGit window cache settings
+     *
+     * @param packedGitLimit the maximum number of bytes of pack files held in memory
+     * @param packedGitOpenFiles the maximum number of pack files kept open
+     * @param packedGitMMAP whether pack files are memory mapped instead of read
+     * @param deltaBaseCacheLimit the maximum number of bytes used for caching delta bases
+     */
+    public static void configureWindowCache(
+            long packedGitLimit, int packedGitOpenFiles, boolean packedGitMMAP, int deltaBaseCacheLimit) {
+
+        WindowCacheConfig config = new WindowCacheConfig();
+        config.setPackedGitLimit(packedGitLimit);
+        config.setPackedGitOpenFiles(packedGitOpenFiles);
+        config.setPackedGitMMAP(packedGitMMAP);
+        config.setDeltaBaseCacheLimit(deltaBaseCacheLimit);
+        config.install();
+    }
+
+    private final String slingRepoCheckoutDir;
+    private final RepositoryMapping mapping;
+    private final ConcurrentMap<String, Repository> repositories = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, TagIndex> tagIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * @param slingRepoCheckoutDir the repo root for Apache Sling
+     */
+    public RepositoryRegistry(String slingRepoCheckoutDir) {
+        this(slingRepoCheckoutDir, RepositoryMapping.DEFAULT);
+    }
+
+    /**
+     * @param slingRepoCheckoutDir the repo root for Apache Sling
+     * @param mapping the repositories of the artifacts
+     */
+    public RepositoryRegistry(String slingRepoCheckoutDir, RepositoryMapping mapping) {
+        this.slingRepoCheckoutDir = slingRepoCheckoutDir;
+        this.mapping = mapping;
+    }
+
+    public RepositoryMapping getMapping() {
+        return mapping;
+    }
+
+    /**
+     * Returns the repository for the artifact, opening it on first access
+     *
+     * @param artifactId the artifact id
+     * @return the open repository, which must not be closed by the caller
+     * @throws IOException in case the repository does not exist or cannot be opened
+     */
+    public Repository get(String artifactId) throws IOException {
+        try {
+            return repositories.computeIfAbsent(mapping.getRepository(artifactId), this::open);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Returns the tag index for the artifact's repository, building it on first access
+     *
+     * @param artifactId the artifact id
+     * @return the tag index
+     * @throws IOException in case the repository does not exist or its tags cannot be read
+     */
+    public TagIndex getTags(String artifactId) throws IOException {
+        Repository repository = get(artifactId);
+        try {
+            return tagIndexes.computeIfAbsent(mapping.getRepository(artifactId), k -> {
+                try {
+                    return new TagIndex(repository);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Drops the tag indexes, so that tags created or fetched since they were built are seen
+     */
+    public void refreshTags() {
+        tagIndexes.clear();
+    }
+
+    private Repository open(String repository) {
+
+        Path repoPath = Paths.get(slingRepoCheckoutDir, repository, ".git");
+
+        try {
+            return new FileRepositoryBuilder()
+                    .setGitDir(repoPath.toFile())
+                    .readEnvironment() // scan environment GIT_* variables
+                    .findGitDir() // scan up the file system tree
+                    .setMustExist(true)
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        repositories.values().forEach(Repository::close);
+        repositories.clear();
+        tagIndexes.clear();
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.git;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.Version;
+import org.eclipse.aether.version.VersionScheme;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+
+/**
+ * Maps the release tags of a repository to the commits they point to
+ *
+ * <p>All tags, packed and loose, are read and peeled once when the index is created, after that lookups no longer
+ * touch the ref database. Release tags are expected to be named <tt>$artifactId-$version</tt>.</p>
+ */
+public class TagIndex {
+
+    private static final VersionScheme VERSION_SCHEME = new GenericVersionScheme();
+
+    private final String location;
+    private final Map<String, ObjectId> commitsByTag = new HashMap<>();
+    private final ConcurrentMap<String, List<Map.Entry<Version, String>>> versionsByArtifact =
+            new ConcurrentHashMap<>();
+
+    public TagIndex(Repository repository) throws IOException {
+        this.location = repository.getDirectory().toString();
+
+        List<Ref> tags = repository.getRefDatabase().getRefsByPrefix(Constants.R_TAGS);
+        for (Ref tag : tags) {
+            Ref peeled = repository.getRefDatabase().peel(tag);
+            ObjectId commit = peeled.getPeeledObjectId() != null ? peeled.getPeeledObjectId() : peeled.getObjectId();
+            commitsByTag.put(tag.getName().substring(Constants.R_TAGS.length()), commit);
+        }
+    }
+
+    /**
+     * @return the commit tagged for the given artifact version, or <code>null</code> if there is no such tag
+     */
+    public ObjectId find(String artifactId, String version) {
+        return commitsByTag.get(artifactId + "-" + version);
+    }
+
+    /**
+     * Looks up the commit tagged for the given artifact version, falling back to the tag of the nearest version if
+     * that is missing
+     *
+     * <p>The nearest version is the highest tagged version below the requested one or, if there is none, the lowest
+     * tagged version above it.</p>
+     *
+     * @return the tagged commit
+     * @throws IOException in case the repository has no release tags at all for the artifact
+     */
+    public ObjectId resolve(String artifactId, String version) throws IOException {
+        return find(artifactId, resolveVersion(artifactId, version));
+    }
+
+    /**
+     * Same as {@link #resolve(String, String)}, but returns the version which was tagged
+     *
+     * @return the given version if it was tagged, otherwise the nearest tagged version
+     * @throws IOException in case the repository has no release tags at all for the artifact
+     */
+    public String resolveVersion(String artifactId, String version) throws IOException {
+
+        if (find(artifactId, version) != null) {
+            return version;
+        }
+
+        String tagName = artifactId + "-" + version;
+        Optional<String> nearest = nearestVersion(artifactId, version);
+        if (!nearest.isPresent()) {
+            throw new IOException("No tag " + tagName + " found in git repo at " + location);
+        }
+
+        System.err.println("No tag " + tagName + " found in git repo at " + location + ", using " + artifactId + "-"
+                + nearest.get() + " instead");
+        return nearest.get();
+    }
+
+    /**
+     * @return the highest tagged version of the artifact below the given one, or <code>null</code> if there is none
+     */
+    public String previousVersion(String artifactId, String version) {
+
+        Version current = parse(version);
+        if (current == null) {
+            return null;
+        }
+
+        List<Map.Entry<Version, String>> versions = versionsByArtifact.computeIfAbsent(artifactId, this::versions);
+        for (int i = versions.size() - 1; i >= 0; i--) {
+            if (versions.get(i).getKey().compareTo(current) < 0) {
+                return versions.get(i).getValue();
+            }
+        }
+        return null;
+    }
+
+    // the tagged versions of the artifact, lowest first
+    private List<Map.Entry<Version, String>> versions(String artifactId) {
+        String prefix = artifactId + "-";
+        List<Map.Entry<Version, String>> versions = new ArrayList<>();
+        for (String tag : commitsByTag.keySet()) {
+            if (tag.startsWith(prefix)) {
+                String candidate = tag.substring(prefix.length());
+                Version candidateVersion = parse(candidate);
+                if (candidateVersion != null) {
+                    versions.add(new AbstractMap.SimpleImmutableEntry<>(candidateVersion, candidate));
+                }
+            }
+        }
+        versions.sort(Map.Entry.comparingByKey());
+        return versions;
+    }
+
+    /**
+     * @return <code>true</code> if the first version is lower than the second one
+     */
+    static boolean isLower(String version, String other) {
+        Version parsed = parse(version);
+        Version parsedOther = parse(other);
+        return parsed != null && parsedOther != null && parsed.compareTo(parsedOther) < 0;
+    }
+
+    private Optional<String> nearestVersion(String artifactId, String version) {
+
+        Version requested = parse(version);
+        if (requested == null) {
+            return Optional.empty();
+        }
+
+        String prefix = artifactId + "-";
+        String below = null;
+        Version belowVersion = null;
+        String above = null;
+        Version aboveVersion = null;
+
+        for (String tag : commitsByTag.keySet()) {
+            if (!tag.startsWith(prefix)) {
+                continue;
+            }
+            String candidate = tag.substring(prefix.length());
+            Version candidateVersion = parse(candidate);
+            if (candidateVersion == null) {
+                continue;
+            }
+            if (candidateVersion.compareTo(requested) <= 0) {
+                if (belowVersion == null || candidateVersion.compareTo(belowVersion) > 0) {
+                    below = candidate;
+                    belowVersion = candidateVersion;
+                }
+            } else if (aboveVersion == null || candidateVersion.compareTo(aboveVersion) < 0) {
+                above = candidate;
+                aboveVersion = candidateVersion;
+            }
+        }
+
+        return Optional.ofNullable(below != null ? below : above);
+    }
+
+    private static Version parse(String version) {
+        // artifact ids may be prefixes of each other, so the remainder is not necessarily a version
+        if (version.isEmpty() || !Character.isDigit(version.charAt(0))) {
+            return null;
+        }
+        try {
+            return VERSION_SCHEME.parseVersion(version);
+        } catch (InvalidVersionSpecificationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.jira;
+
+/**
+ * Limits the number of concurrent calls, adapting the limit to the throttling observed
+ *
+ * <p>The limit grows by one after a full limit's worth of successful calls and is halved whenever a call is
+ * throttled, while calls failing otherwise leave it unchanged. This is the same additive increase / multiplicative
+ * decrease scheme TCP uses for its congestion window.
+ */
+final class AdaptiveLimit {
+
+    enum Outcome {
+        /** the call succeeded, lets the limit grow */
+        SUCCEEDED,
+        /** the call was throttled by the server, halves the limit */
+        THROTTLED,
+        /** the call failed otherwise, leaves the limit as it is */
+        FAILED
+    }
+
+    private final int max;
+    private double limit;
+    private int inFlight;
+
+    /**
+     * @param max the initial and highest limit
+     */
+    AdaptiveLimit(int max) {
+        this.max = Math.max(1, max);
+        this.limit = this.max;
+    }
+
+    synchronized void acquire() throws InterruptedException {
+        while (inFlight >= (int) limit) {
+            wait();
+        }
+        inFlight++;
+    }
+
+    /**
+     * @param outcome how the call ended
+     */
+    synchronized void release(Outcome outcome) {
+        inFlight--;
+        if (outcome == Outcome.THROTTLED) {
+            limit = Math.max(1, limit / 2);
+        } else if (outcome == Outcome.SUCCEEDED) {
+            limit = Math.min(max, limit + 1 / limit);
+        }
+        notifyAll();
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+}
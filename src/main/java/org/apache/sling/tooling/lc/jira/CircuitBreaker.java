@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.jira;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Stops calling a server which keeps failing, letting a single probe call through once the break is over
+ *
+ * <p>Each call let through by {@link #allow()} must be followed by exactly one of {@link #success()},
+ * {@link #failure()} or {@link #abandoned()}, otherwise the circuit may stay half open.
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int threshold;
+    private final long breakMillis;
+    private final Clock clock;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private volatile long openedAt;
+    private int failures;
+
+    /**
+     * @param threshold the number of consecutive failures after which calls are stopped
+     * @param breakDuration how long calls are stopped
+     * @param clock the clock to measure the break with
+     */
+    CircuitBreaker(int threshold, Duration breakDuration, Clock clock) {
+        this.threshold = threshold;
+        this.breakMillis = breakDuration.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * @return <code>true</code> if a call may be made
+     */
+    boolean allow() {
+        switch (state.get()) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                // once the break is over only the caller switching to half open probes the server
+                return clock.millis() - openedAt >= breakMillis && state.compareAndSet(State.OPEN, State.HALF_OPEN);
+            default:
+                // a probe is under way
+                return false;
+        }
+    }
+
+    /**
+     * The call reached a healthy server, closes the circuit
+     */
+    synchronized void success() {
+        failures = 0;
+        state.set(State.CLOSED);
+    }
+
+    /**
+     * The call failed to reach the server, opens the circuit after a failed probe or too many failures
+     */
+    synchronized void failure() {
+        failures++;
+        State current = state.get();
+        if (current == State.HALF_OPEN || (current == State.CLOSED && failures >= threshold)) {
+            openedAt = clock.millis();
+            state.set(State.OPEN);
+        }
+    }
+
+    /**
+     * The call ended without telling whether the server is healthy, the next call may probe it instead
+     */
+    void abandoned() {
+        state.compareAndSet(State.HALF_OPEN, State.OPEN);
+    }
+
+    State getState() {
+        return state.get();
+    }
+
+    boolean isOpen() {
+        return state.get() == State.OPEN;
+    }
+}
@@ -18,67 +18,142 @@
  */
 package org.apache.sling.tooling.lc.jira;
 
-import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
+/**
+ * A Jira issue, with the fields the change logs need
+ *
+ * <p>The key is split into its project and number when the issue is created, so that sorting issues does not parse
+ * the keys again for each comparison.
+ */
 public class Issue implements Comparable<Issue> {
 
-    private static final Pattern KEY_PATTERN = Pattern.compile("^([A-Z]+)-(\\d+)$");
-
     private final String key;
     private final Fields fields;
+    private final transient String project;
+    private final transient int number;
+
+    /**
+     * @param key the issue key
+     * @return an issue of which only the key is known, for when it cannot be looked up
+     */
+    public static Issue keyOnly(String key) {
+        return new Issue(key, null);
+    }
 
     public Issue(String key, Fields fields) {
         this.key = key;
         this.fields = fields;
+
+        int separator = key.lastIndexOf('-');
+        if (isProject(key, separator) && isNumber(key, separator + 1)) {
+            this.project = key.substring(0, separator).intern();
+            this.number = Integer.parseInt(key, separator + 1, key.length(), 10);
+        } else {
+            this.project = null;
+            this.number = -1;
+        }
+    }
+
+    // PROJECT-123, where the project starts with an upper case letter followed by upper case letters or digits
+    private static boolean isProject(String key, int end) {
+        if (end < 1 || !isUpperCase(key.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < end; i++) {
+            char c = key.charAt(i);
+            if (!isUpperCase(c) && !isDigit(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNumber(String key, int start) {
+        // at most 9 digits, so that the number fits into an int
+        if (start >= key.length() || key.length() - start > 9) {
+            return false;
+        }
+        for (int i = start; i < key.length(); i++) {
+            if (!isDigit(key.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isUpperCase(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
     }
 
     public String getKey() {
         return key;
     }
 
+    /**
+     * @return the project part of the key, <code>null</code> if the key is not valid
+     */
+    public String getProject() {
+        return project;
+    }
+
+    /**
+     * @return the number part of the key, <tt>-1</tt> if the key is not valid
+     */
+    public int getNumber() {
+        return number;
+    }
+
     public Fields getFields() {
         return fields;
     }
 
+    /**
+     * @return <code>true</code> if only the key is known, as the issue could not be looked up
+     */
+    public boolean isKeyOnly() {
+        return fields == null;
+    }
+
     public String getSummary() {
-        return fields.getSummary();
+        return fields != null ? fields.getSummary() : null;
     }
 
     public String getIssueType() {
-        return fields.getIssuetype().getName();
+        return fields != null && fields.getIssuetype() != null
+                ? fields.getIssuetype().getName()
+                : null;
     }
 
     @Override
     public String toString() {
-        return key + " - " + getSummary();
+        return isKeyOnly() ? key : key + " - " + getSummary();
     }
 
+    /**
+     * Orders issues by project and number, and issues with invalid keys after all others, by key
+     */
     @Override
     public int compareTo(Issue o) {
 
-        Matcher ourMatcher = KEY_PATTERN.matcher(key);
-        Matcher theirMatcher = KEY_PATTERN.matcher(o.key);
-
-        if (!ourMatcher.matches()) {
-            throw new IllegalArgumentException("No match found for " + key);
+        // a single unusual key from Jira or an export must not fail sorting all the others
+        if (project == null || o.project == null) {
+            if (project != null) {
+                return -1;
+            }
+            if (o.project != null) {
+                return 1;
+            }
+            return key.compareTo(o.key);
         }
 
-        if (!theirMatcher.matches()) {
-            throw new IllegalArgumentException("No match found for " + o.key);
+        // project names are interned
+        if (project != o.project) {
+            return project.compareTo(o.project);
         }
 
-        String ourProject = ourMatcher.group(1);
-        String theirProject = theirMatcher.group(1);
-
-        if (!Objects.equals(ourProject, theirProject)) {
-            return ourProject.compareTo(theirProject);
-        }
-
-        int ourId = Integer.parseInt(ourMatcher.group(2));
-        int theirId = Integer.parseInt(theirMatcher.group(2));
-
-        return Integer.valueOf(ourId).compareTo(theirId);
+        return Integer.compare(number, o.number);
     }
 }
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.jira;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gson.JsonParseException;
+
+/**
+ * Persistent cache of Jira issues, keyed by issue key
+ *
+ * <p>Entries expire after a configurable time to live, after which the {@link IssueFinder} revalidates them. Once the
+ * cache holds more than the configured number of entries the least recently used ones are evicted. Keys which Jira did
+ * not return are cached as well, so that they are not looked up again on every run.</p>
+ */
+public class IssueCache {
+
+    public static final String DEFAULT_LOCATION = "target/jira-cache/issues.json";
+    public static final Duration DEFAULT_TTL = Duration.ofDays(7);
+    public static final int DEFAULT_MAX_ENTRIES = 20_000;
+
+    /**
+     * Opens the cache stored at the given location, starting with an empty one if the file does not exist yet
+     */
+    public static IssueCache open(Path file, Duration ttl, int maxEntries) throws IOException {
+        IssueCache cache = new IssueCache(file, ttl, maxEntries, Clock.systemUTC());
+        cache.load();
+        return cache;
+    }
+
+    private final Path file;
+    private final Duration ttl;
+    private final Clock clock;
+    private final Map<String, CachedIssue> entries;
+
+    private int hits;
+    private int misses;
+    private int expired;
+    private boolean modified;
+
+    IssueCache(Path file, Duration ttl, int maxEntries, Clock clock) {
+        this.file = file;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<String, CachedIssue>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedIssue> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            CachedIssue[] stored = JiraJson.GSON.fromJson(reader, CachedIssue[].class);
+            if (stored != null) {
+                // stored least recently used first, so that re-inserting restores the access order
+                Arrays.stream(stored).forEach(e -> entries.put(e.key, e));
+            }
+        } catch (JsonParseException e) {
+            // a broken cache is not worth failing the run for, it will be overwritten on save
+            System.err.println("Ignoring unreadable Jira cache " + file + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the cache back to disk, if anything changed since it was loaded
+     */
+    public synchronized void save() throws IOException {
+        if (!modified) {
+            return;
+        }
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            JiraJson.GSON.toJson(new ArrayList<>(entries.values()), writer);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        modified = false;
+    }
+
+    /**
+     * Looks up a cached entry and records the hit or miss
+     *
+     * @param key the issue key
+     * @param allowExpired whether an expired entry counts as a hit, e.g. when working offline
+     * @return the entry, or <code>null</code> if the key is not cached or the entry has expired
+     */
+    synchronized CachedIssue lookup(String key, boolean allowExpired) {
+        CachedIssue entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (!allowExpired && isExpired(entry)) {
+            expired++;
+            return null;
+        }
+        hits++;
+        return entry;
+    }
+
+    /**
+     * @return the expired entry stored for the key, without affecting the statistics
+     */
+    synchronized CachedIssue getExpired(String key) {
+        CachedIssue entry = entries.get(key);
+        return entry != null && isExpired(entry) ? entry : null;
+    }
+
+    private boolean isExpired(CachedIssue entry) {
+        return clock.millis() - entry.fetched > ttl.toMillis();
+    }
+
+    synchronized void put(Issue issue) {
+        entries.put(
+                issue.getKey(),
+                new CachedIssue(issue.getKey(), issue.getSummary(), issue.getIssueType(), clock.millis()));
+        modified = true;
+    }
+
+    /**
+     * Remembers that Jira has no (visible) issue with this key
+     */
+    synchronized void putMissing(String key) {
+        entries.put(key, new CachedIssue(key, null, null, clock.millis()));
+        modified = true;
+    }
+
+    /**
+     * Marks an expired entry as up to date again, without changing its content
+     */
+    synchronized void revalidated(String key) {
+        CachedIssue entry = entries.get(key);
+        if (entry != null) {
+            entries.put(key, new CachedIssue(entry.key, entry.summary, entry.issueType, clock.millis()));
+            modified = true;
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    public synchronized int getMisses() {
+        return misses;
+    }
+
+    public synchronized int getExpired() {
+        return expired;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Jira cache: " + hits + " hits, " + misses + " misses, " + expired + " expired, " + entries.size()
+                + " entries";
+    }
+
+    static class CachedIssue {
+
+        private final String key;
+        private final String summary;
+        private final String issueType;
+        private final long fetched;
+
+        CachedIssue(String key, String summary, String issueType, long fetched) {
+            this.key = key;
+            this.summary = summary;
+            this.issueType = issueType;
+            this.fetched = fetched;
+        }
+
+        long getFetched() {
+            return fetched;
+        }
+
+        /**
+         * @return the cached issue, or <code>null</code> if Jira has no issue with this key
+         */
+        Issue toIssue() {
+            return summary == null ? null : new Issue(key, new Fields(summary, new IssueType(issueType)));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.jira;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Reads issues from files exported from Jira, to build an {@link IssueIndex} from
+ *
+ * <p>Two formats are supported:
+ *
+ * <ul>
+ *   <li>JSON, either a saved search response or an array of issues, as returned by the REST API</li>
+ *   <li>CSV, as exported from the issue navigator, with at least the <tt>Issue key</tt>, <tt>Summary</tt> and
+ *       <tt>Issue Type</tt> columns</li>
+ * </ul>
+ */
+public class IssueExports {
+
+    private static final String KEY_COLUMN = "issue key";
+    private static final String SUMMARY_COLUMN = "summary";
+    private static final String TYPE_COLUMN = "issue type";
+
+    /**
+     * @param file the export, read as CSV if its name ends with <tt>.csv</tt> and as JSON otherwise
+     * @return the exported issues
+     * @throws IOException in case the file cannot be read or is not a valid export
+     */
+    public static List<Issue> read(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv")) {
+                return readCsv(reader, file.toString());
+            }
+            return readJson(reader, file.toString());
+        }
+    }
+
+    static List<Issue> readJson(Reader reader, String location) throws IOException {
+        try {
+            JsonReader in = new JsonReader(reader);
+            if (in.peek() == JsonToken.BEGIN_OBJECT) {
+                return JiraJson.GSON.getAdapter(Response.class).read(in).getIssues();
+            }
+
+            TypeAdapter<Issue> adapter = JiraJson.GSON.getAdapter(Issue.class);
+            List<Issue> issues = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                issues.add(adapter.read(in));
+            }
+            in.endArray();
+            return issues;
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IOException("Invalid Jira export " + location + " : " + e.getMessage(), e);
+        }
+    }
+
+    static List<Issue> readCsv(Reader reader, String location) throws IOException {
+
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new IOException("Empty Jira export " + location);
+        }
+
+        int key = column(header, KEY_COLUMN, location);
+        int summary = column(header, SUMMARY_COLUMN, location);
+        int type = column(header, TYPE_COLUMN, location);
+
+        List<Issue> issues = new ArrayList<>();
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            if (record.size() <= Math.max(key, Math.max(summary, type))) {
+                // trailing empty lines
+                continue;
+            }
+            issues.add(new Issue(record.get(key), new Fields(record.get(summary), new IssueType(record.get(type)))));
+        }
+        return issues;
+    }
+
+    private static int column(List<String> header, String name, String location) throws IOException {
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).trim().equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        throw new IOException("No '" + name + "' column in Jira export " + location);
+    }
+
+    /**
+     * Reads RFC 4180 records, where quoted fields may contain separators, quotes and line breaks
+     */
+    private static final class CsvReader {
+
+        private final Reader in;
+        private int next;
+
+        CsvReader(Reader in) throws IOException {
+            this.in = in;
+            this.next = in.read();
+            // byte order mark, as written by spreadsheet applications
+            if (next == '\uFEFF') {
+                next = in.read();
+            }
+        }
+
+        /**
+         * @return the fields of the next record, or <code>null</code> at the end of the input
+         */
+        List<String> next() throws IOException {
+            if (next < 0) {
+                return null;
+            }
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                int c = next;
+                next = c < 0 ? c : in.read();
+                if (quoted) {
+                    if (c < 0) {
+                        throw new IOException("Unterminated quoted field");
+                    } else if (c == '"' && next == '"') {
+                        field.append('"');
+                        next = in.read();
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n' || c < 0) {
+                    if (c == '\r' && next == '\n') {
+                        next = in.read();
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+            }
+        }
+    }
+}
@@ -19,64 +19,308 @@
 package org.apache.sling.tooling.lc.jira;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.net.URISyntaxException;
+import java.io.InterruptedIOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
-import com.google.gson.Gson;
-import org.apache.http.HttpResponse;
-import org.apache.http.client.HttpClient;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.client.utils.HttpClientUtils;
-import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.sling.tooling.lc.metrics.Metrics;
 
-public class IssueFinder {
+/**
+ * Resolves issue keys through the Jira REST API, consulting the {@link IssueCache} before calling Jira
+ *
+ * <p>Instances hold on to pooled HTTP connections and are meant to be reused for all lookups of a run, and closed
+ * afterwards.</p>
+ */
+public class IssueFinder implements IssueResolver {
+
+    public static final String DEFAULT_JIRA_URL = "https://issues.apache.org/jira";
+
+    // keeps the generated JQL, and therefore the request URI, at a length Jira accepts
+    private static final int DEFAULT_BATCH_SIZE = 150;
+
+    // Jira silently caps this server-side, paging does not rely on getting the full page
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private static final DateTimeFormatter JQL_DATE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm").withZone(ZoneOffset.UTC);
 
     public static void main(String[] args) throws IOException {
 
-        new IssueFinder()
-                .findIssues(Arrays.asList("SLING-1", "SLING-2")).stream().forEach(System.out::println);
+        try (IssueFinder finder = new IssueFinder()) {
+            finder.findIssues(Arrays.asList("SLING-1", "SLING-2")).stream().forEach(System.out::println);
+        }
+    }
+
+    private final JiraClient client;
+    private final IssueCache cache;
+    private final boolean offline;
+    private final Executor executor;
+    private final int batchSize;
+    private final int pageSize;
+    private Metrics metrics = Metrics.DISABLED;
+
+    public IssueFinder() {
+        this(DEFAULT_JIRA_URL);
+    }
+
+    /**
+     * @param jiraUrl the base URL of the Jira instance, e.g. <tt>https://issues.apache.org/jira</tt>
+     */
+    public IssueFinder(String jiraUrl) {
+        this(new JiraClient(jiraUrl), null, false);
+    }
+
+    /**
+     * @param client the client used for calling Jira, closed together with this instance
+     * @param cache the cache to consult before calling Jira, may be <code>null</code>
+     * @param offline if <code>true</code> issues are only looked up in the cache, expired entries included
+     */
+    public IssueFinder(JiraClient client, IssueCache cache, boolean offline) {
+        this(client, cache, offline, Runnable::run);
+    }
+
+    /**
+     * @param client the client used for calling Jira, closed together with this instance
+     * @param cache the cache to consult before calling Jira, may be <code>null</code>
+     * @param offline if <code>true</code> issues are only looked up in the cache, expired entries included
+     * @param executor runs the search calls for the individual batches, possibly concurrently
+     */
+    public IssueFinder(JiraClient client, IssueCache cache, boolean offline, Executor executor) {
+        this(client, cache, offline, executor, DEFAULT_BATCH_SIZE, DEFAULT_PAGE_SIZE);
+    }
+
+    IssueFinder(JiraClient client, IssueCache cache, boolean offline, Executor executor, int batchSize, int pageSize) {
+        this.client = client;
+        this.cache = cache;
+        this.offline = offline;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * @param metrics records the time spent finding issues and the use of the cache
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Looks up the given issues, splitting the keys into a few large batches and paging through the search results
+     *
+     * <p>Keys found in the cache are not sent to Jira, expired cache entries are only fetched again if the issue was
+     * updated in the meantime.</p>
+     *
+     * <p>If Jira is unavailable, expired cache entries are used as they are, and issues which are not cached at all
+     * are returned with their key only, see {@link Issue#isKeyOnly()}.</p>
+     *
+     * @param issueKeys the keys to look up, duplicates are ignored
+     * @return the issues which were found, sorted by key
+     * @throws IOException in case any of the search calls fails for another reason than Jira being unavailable
+     */
+    @Override
+    public List<Issue> findIssues(Collection<String> issueKeys) throws IOException {
+        try (Metrics.Timer timer = metrics.start("jira.find-issues")) {
+            return findIssuesTimed(issueKeys);
+        }
+    }
+
+    private List<Issue> findIssuesTimed(Collection<String> issueKeys) throws IOException {
+
+        List<Issue> issues = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        List<String> expired = new ArrayList<>();
+
+        Set<String> keys = new LinkedHashSet<>(issueKeys);
+        for (String key : keys) {
+            if (cache == null) {
+                missing.add(key);
+                continue;
+            }
+
+            IssueCache.CachedIssue entry = cache.lookup(key, offline);
+            if (entry != null) {
+                Optional.ofNullable(entry.toIssue()).ifPresent(issues::add);
+            } else if (cache.getExpired(key) != null) {
+                expired.add(key);
+            } else {
+                missing.add(key);
+            }
+        }
+
+        if (cache != null) {
+            // hits include the keys cached as not existing
+            metrics.count("jira.cache.hits", keys.size() - expired.size() - missing.size());
+            metrics.count("jira.cache.expired", expired.size());
+            metrics.count("jira.cache.misses", missing.size());
+        }
+
+        if (!offline) {
+            List<Search> searches = new ArrayList<>();
+            batches(missing).forEach(batch -> searches.add(new Search(() -> fetch(batch), () -> keysOnly(batch))));
+            batches(expired)
+                    .forEach(batch -> searches.add(new Search(() -> revalidate(batch), () -> expiredIssues(batch))));
+            issues.addAll(runAll(searches));
+        }
+
+        Collections.sort(issues);
+        return issues;
+    }
+
+    private List<Issue> fetch(List<String> batch) throws IOException {
+
+        List<Issue> found = search("key in (" + String.join(",", batch) + ")");
+        if (cache != null) {
+            found.forEach(cache::put);
+            Set<String> foundKeys = found.stream().map(Issue::getKey).collect(Collectors.toSet());
+            batch.stream().filter(k -> !foundKeys.contains(k)).forEach(cache::putMissing);
+        }
+        return found;
     }
 
-    public List<Issue> findIssues(List<String> issueKeys) throws IOException {
+    /**
+     * Only asks for the expired issues which were updated since they were cached, all others are still valid
+     */
+    private List<Issue> revalidate(List<String> batch) throws IOException {
 
-        if (issueKeys.isEmpty()) {
-            return Collections.emptyList();
+        Map<String, IssueCache.CachedIssue> stale = new LinkedHashMap<>();
+        List<String> gone = new ArrayList<>();
+        for (String key : batch) {
+            IssueCache.CachedIssue entry = cache.getExpired(key);
+            if (entry != null) {
+                stale.put(key, entry);
+            } else {
+                gone.add(key);
+            }
+        }
+
+        // evicted by other searches of this lookup, or refreshed meanwhile, either way there is nothing to compare to
+        List<Issue> issues = gone.isEmpty() ? new ArrayList<>() : fetch(gone);
+        if (stale.isEmpty()) {
+            return issues;
+        }
+
+        // the JQL date is interpreted in the server's time zone, a day of slack covers any offset
+        long since = stale.values().stream()
+                        .mapToLong(IssueCache.CachedIssue::getFetched)
+                        .min()
+                        .getAsLong()
+                - TimeUnit.DAYS.toMillis(1);
+        String updated = JQL_DATE_FORMAT.format(Instant.ofEpochMilli(since));
+
+        List<Issue> updatedIssues =
+                search("key in (" + String.join(",", stale.keySet()) + ") AND updated >= \"" + updated + "\"");
+        updatedIssues.forEach(cache::put);
+        updatedIssues.forEach(i -> stale.remove(i.getKey()));
+        issues.addAll(updatedIssues);
+
+        for (Map.Entry<String, IssueCache.CachedIssue> unchanged : stale.entrySet()) {
+            cache.revalidated(unchanged.getKey());
+            Optional.ofNullable(unchanged.getValue().toIssue()).ifPresent(issues::add);
         }
+        return issues;
+    }
 
-        HttpClient client = HttpClientBuilder.create().build();
+    private List<Issue> keysOnly(List<String> batch) {
+        return batch.stream().map(Issue::keyOnly).collect(Collectors.toList());
+    }
+
+    private List<Issue> expiredIssues(List<String> batch) {
+        return batch.stream()
+                .map(cache::getExpired)
+                .filter(e -> e != null && e.toIssue() != null)
+                .map(IssueCache.CachedIssue::toIssue)
+                .collect(Collectors.toList());
+    }
 
-        HttpGet get;
-        try {
-            URIBuilder builder = new URIBuilder("https://issues.apache.org/jira/rest/api/2/search")
-                    .addParameter("jql", "key in (" + String.join(",", issueKeys) + ")")
-                    .addParameter("fields", "key,summary,issuetype");
+    private List<Issue> runAll(List<Search> searches) throws IOException {
 
-            get = new HttpGet(builder.build());
-        } catch (URISyntaxException e) {
-            // never happens
-            throw new RuntimeException(e);
+        List<FutureTask<List<Issue>>> tasks = new ArrayList<>();
+        for (Search search : searches) {
+            FutureTask<List<Issue>> task = new FutureTask<>(search.call);
+            executor.execute(task);
+            tasks.add(task);
         }
 
-        HttpResponse response = client.execute(get);
-        try {
-            if (response.getStatusLine().getStatusCode() != 200) {
-                throw new IOException("Search call returned status "
-                        + response.getStatusLine().getStatusCode());
+        List<Issue> issues = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                issues.addAll(tasks.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for Jira");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof JiraUnavailableException) {
+                    List<Issue> fallback = searches.get(i).fallback.get();
+                    metrics.count("jira.degraded", fallback.size());
+                    issues.addAll(fallback);
+                    continue;
+                }
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new RuntimeException(e.getCause());
             }
+        }
+        return issues;
+    }
+
+    private List<List<String>> batches(List<String> issueKeys) {
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < issueKeys.size(); i += batchSize) {
+            batches.add(issueKeys.subList(i, Math.min(i + batchSize, issueKeys.size())));
+        }
+        return batches;
+    }
 
-            try (Reader reader = new InputStreamReader(response.getEntity().getContent(), "UTF-8")) {
-                Response apiResponse = new Gson().fromJson(reader, Response.class);
-                List<Issue> issues = apiResponse.getIssues();
-                Collections.sort(issues);
+    private List<Issue> search(String jql) throws IOException {
+
+        List<Issue> issues = new ArrayList<>();
+        while (true) {
+            // the next page starts after what we have, even if Jira returned less than asked for
+            Response page = client.search(jql, issues.size(), pageSize);
+            List<Issue> pageIssues = page.getIssues() != null ? page.getIssues() : Collections.emptyList();
+            issues.addAll(pageIssues);
+            if (pageIssues.isEmpty() || issues.size() >= page.getTotal()) {
                 return issues;
             }
-        } finally {
-            HttpClientUtils.closeQuietly(client);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.close();
+    }
+
+    /**
+     * A search call, with what to return instead if Jira is unavailable
+     */
+    private static final class Search {
+
+        private final Callable<List<Issue>> call;
+        private final Supplier<List<Issue>> fallback;
+
+        Search(Callable<List<Issue>> call, Supplier<List<Issue>> fallback) {
+            this.call = call;
+            this.fallback = fallback;
         }
     }
 }
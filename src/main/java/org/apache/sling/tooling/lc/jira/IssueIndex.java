@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.jira;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.apache.sling.tooling.lc.metrics.Metrics;
+
+/**
+ * Resolves issues from a local index file, without any network access
+ *
+ * <p>The index is built once from an export of the issue tracker with {@link #write(Path, Collection)}, and
+ * memory-mapped when opened. It starts with the project names, followed by a table of fixed size records sorted by
+ * project and number, which lookups binary search, and the summaries and issue types the records point to. Each issue
+ * type is only stored once.
+ */
+public class IssueIndex implements IssueResolver {
+
+    public static final String DEFAULT_LOCATION = "target/issue-index/issues.idx";
+
+    private static final int MAGIC = 0x4c434949; // LCII
+    private static final int VERSION = 1;
+
+    // project, number, summary offset, issue type offset
+    private static final int RECORD_SIZE = 16;
+
+    private final ByteBuffer buffer;
+    private final Map<String, Integer> projects;
+    private final int records;
+    private final int count;
+    private Metrics metrics = Metrics.DISABLED;
+
+    /**
+     * @param file the index, as written by {@link #write(Path, Collection)}
+     * @return the index
+     * @throws IOException in case the file cannot be read or is not an index
+     */
+    public static IssueIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new IssueIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), file);
+        }
+    }
+
+    private IssueIndex(ByteBuffer buffer, Path file) throws IOException {
+        this.buffer = buffer;
+        try {
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not an issue index : " + file);
+            }
+            count = buffer.getInt(8);
+            int projectCount = buffer.getInt(12);
+
+            projects = new HashMap<>();
+            int position = 16;
+            for (int i = 0; i < projectCount; i++) {
+                int length = buffer.getShort(position);
+                projects.put(decode(position + 2, length), i);
+                position += 2 + length;
+            }
+            records = position;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Truncated issue index : " + file, e);
+        }
+    }
+
+    /**
+     * @param metrics records the number of keys found and not found in the index
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public List<Issue> findIssues(Collection<String> issueKeys) {
+
+        List<Issue> issues = new ArrayList<>();
+        for (String key : new LinkedHashSet<>(issueKeys)) {
+            Issue issue = find(key);
+            if (issue != null) {
+                issues.add(issue);
+            }
+        }
+
+        metrics.count("issues.index.hits", issues.size());
+        metrics.count("issues.index.misses", new LinkedHashSet<>(issueKeys).size() - issues.size());
+
+        Collections.sort(issues);
+        return issues;
+    }
+
+    private Issue find(String key) {
+
+        Issue parsed = Issue.keyOnly(key);
+        Integer project = parsed.getProject() != null ? projects.get(parsed.getProject()) : null;
+        if (project == null) {
+            return null;
+        }
+
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int record = records + middle * RECORD_SIZE;
+            int comparison = Integer.compare(buffer.getInt(record), project);
+            if (comparison == 0) {
+                comparison = Integer.compare(buffer.getInt(record + 4), parsed.getNumber());
+            }
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return new Issue(
+                        key,
+                        new Fields(
+                                string(buffer.getInt(record + 8)), new IssueType(string(buffer.getInt(record + 12)))));
+            }
+        }
+        return null;
+    }
+
+    private String string(int offset) {
+        return offset < 0 ? null : decode(offset + 4, buffer.getInt(offset));
+    }
+
+    private String decode(int offset, int length) {
+        byte[] bytes = new byte[length];
+        // absolute bulk reads are only available as of Java 13
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        // the mapping is released once the index is no longer referenced
+    }
+
+    /**
+     * Writes an index for the given issues, replacing any existing one
+     *
+     * @param file the index file
+     * @param issues the issues, of which the ones without a valid key or without fields are skipped, for duplicate keys
+     *     the last one wins
+     * @return the number of issues written
+     * @throws IOException in case the index cannot be written
+     */
+    public static int write(Path file, Collection<Issue> issues) throws IOException {
+
+        Map<String, Issue> unique = new LinkedHashMap<>();
+        for (Issue issue : issues) {
+            if (issue.getProject() != null && !issue.isKeyOnly()) {
+                unique.put(issue.getProject() + "-" + issue.getNumber(), issue);
+            }
+        }
+        List<Issue> sorted = new ArrayList<>(unique.values());
+        Collections.sort(sorted);
+
+        // projects sorted by name, so that records sorted by issue are sorted by project index as well
+        List<String> projectNames = new ArrayList<>(
+                new TreeSet<>(sorted.stream().map(Issue::getProject).collect(Collectors.toList())));
+        Map<String, Integer> projectIndexes = new HashMap<>();
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream headerOut = new DataOutputStream(header);
+        headerOut.writeInt(MAGIC);
+        headerOut.writeInt(VERSION);
+        headerOut.writeInt(sorted.size());
+        headerOut.writeInt(projectNames.size());
+        for (String project : projectNames) {
+            byte[] name = project.getBytes(StandardCharsets.UTF_8);
+            headerOut.writeShort(name.length);
+            headerOut.write(name);
+            projectIndexes.put(project, projectIndexes.size());
+        }
+
+        int stringsStart = header.size() + sorted.size() * RECORD_SIZE;
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        DataOutputStream stringsOut = new DataOutputStream(strings);
+        Map<String, Integer> issueTypes = new HashMap<>();
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            header.writeTo(out);
+            for (Issue issue : sorted) {
+                out.writeInt(projectIndexes.get(issue.getProject()));
+                out.writeInt(issue.getNumber());
+                out.writeInt(writeString(issue.getSummary(), stringsStart, stringsOut));
+                String issueType = issue.getIssueType();
+                Integer typeOffset = issueTypes.get(issueType);
+                if (typeOffset == null) {
+                    typeOffset = writeString(issueType, stringsStart, stringsOut);
+                    if (issueType != null) {
+                        issueTypes.put(issueType, typeOffset);
+                    }
+                }
+                out.writeInt(typeOffset);
+            }
+            strings.writeTo(out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        return sorted.size();
+    }
+
+    private static int writeString(String value, int stringsStart, DataOutputStream strings) throws IOException {
+        if (value == null) {
+            return -1;
+        }
+        int offset = stringsStart + strings.size();
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        strings.writeInt(bytes.length);
+        strings.write(bytes);
+        return offset;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.jira;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds the keys of issues in the given Jira projects anywhere in a commit message
+ *
+ * <p>A key is a project name followed by a dash and up to nine digits, and neither preceded nor followed by a letter
+ * or digit, so <tt>[SLING-123]</tt>, <tt>SLING-123:</tt> and <tt>(SLING-123, SLING-124)</tt> all count. The message is
+ * scanned once without any backtracking, as it runs over every commit of a walk.</p>
+ */
+public class IssueKeyScanner {
+
+    public static final String DEFAULT_PROJECTS = "SLING";
+
+    private static final int MAX_DIGITS = 9;
+
+    private final String[] projects;
+
+    /**
+     * @param projects comma separated project names, e.g. <tt>SLING,OAK,FELIX</tt>
+     * @return the scanner for the given projects
+     * @throws IllegalArgumentException in case a project name is not valid
+     */
+    public static IssueKeyScanner forProjects(String projects) {
+        List<String> names = new ArrayList<>();
+        for (String project : projects.split(",")) {
+            names.add(project.trim());
+        }
+        return new IssueKeyScanner(names);
+    }
+
+    /**
+     * @param projects the project names, upper case letters and digits starting with a letter
+     * @throws IllegalArgumentException in case a project name is not valid
+     */
+    public IssueKeyScanner(Collection<String> projects) {
+        for (String project : projects) {
+            if (project.isEmpty() || !isUpperCase(project.charAt(0)) || !isProjectName(project, 1, project.length())) {
+                throw new IllegalArgumentException("Invalid Jira project " + project);
+            }
+        }
+        this.projects = projects.stream().distinct().toArray(String[]::new);
+    }
+
+    /**
+     * @return the project names, comma separated
+     */
+    public String getProjects() {
+        return String.join(",", projects);
+    }
+
+    /**
+     * @param message the full commit message
+     * @return the issue keys found, in order of their first occurrence and without duplicates
+     */
+    public Set<String> scan(CharSequence message) {
+        Set<String> keys = new LinkedHashSet<>();
+        scan(message, keys);
+        return keys;
+    }
+
+    /**
+     * @param message the full commit message
+     * @param keys receives the issue keys found, in order of occurrence
+     */
+    public void scan(CharSequence message, Collection<String> keys) {
+        int length = message.length();
+        int i = 0;
+        while (i < length) {
+            // a key starts with an upper case letter at a word boundary
+            if (!isUpperCase(message.charAt(i)) || (i > 0 && isWordPart(message.charAt(i - 1)))) {
+                i++;
+                continue;
+            }
+
+            int start = i++;
+            while (i < length && (isUpperCase(message.charAt(i)) || isDigit(message.charAt(i)))) {
+                i++;
+            }
+            if (i == length || message.charAt(i) != '-' || !isProject(message, start, i)) {
+                continue;
+            }
+
+            int digits = ++i;
+            while (i < length && isDigit(message.charAt(i))) {
+                i++;
+            }
+            if (i == digits || i - digits > MAX_DIGITS || (i < length && isWordPart(message.charAt(i)))) {
+                continue;
+            }
+
+            keys.add(message.subSequence(start, i).toString());
+        }
+    }
+
+    private boolean isProject(CharSequence message, int start, int end) {
+        int length = end - start;
+        for (String project : projects) {
+            if (project.length() == length && regionMatches(project, message, start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean regionMatches(String project, CharSequence message, int start) {
+        for (int i = 0; i < project.length(); i++) {
+            if (project.charAt(i) != message.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isProjectName(String name, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!isUpperCase(name.charAt(i)) && !isDigit(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // only ASCII counts, Jira keys never contain anything else
+    private static boolean isUpperCase(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordPart(char c) {
+        return isUpperCase(c) || isDigit(c) || (c >= 'a' && c <= 'z') || c == '_';
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.jira;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.apache.sling.tooling.lc.metrics.Metrics;
+
+/**
+ * Talks to the Jira REST API through a single pooled HTTP client, so that connections are kept alive and reused
+ * for all calls made during a run
+ *
+ * <p>Calls which are throttled (429, 503) or fail in a way which is likely temporary are retried, after the delay
+ * announced in <tt>Retry-After</tt> or an exponential backoff with jitter. The number of concurrent calls adapts to
+ * the throttling, and after repeated failures Jira is not called at all for a while, see
+ * {@link JiraUnavailableException}.
+ */
+public class JiraClient implements Closeable {
+
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    public static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(60);
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 4;
+    public static final int DEFAULT_RETRIES = 4;
+    public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private static final Duration BASE_BACKOFF = Duration.ofMillis(500);
+    private static final int CIRCUIT_BREAKER_THRESHOLD = 3;
+    private static final Duration CIRCUIT_BREAKER_DURATION = Duration.ofMinutes(1);
+
+    // used when the server does not announce how long it keeps idle connections open
+    private static final long DEFAULT_KEEP_ALIVE_MILLIS = 30_000;
+
+    private final String jiraUrl;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient client;
+    private final AdaptiveLimit limit;
+    private final CircuitBreaker circuitBreaker;
+    private Metrics metrics = Metrics.DISABLED;
+    private int retries = DEFAULT_RETRIES;
+    private Duration maxBackoff = DEFAULT_MAX_BACKOFF;
+    private Duration baseBackoff = BASE_BACKOFF;
+
+    /**
+     * @param jiraUrl the base URL of the Jira instance, e.g. <tt>https://issues.apache.org/jira</tt>
+     */
+    public JiraClient(String jiraUrl) {
+        this(jiraUrl, DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT, DEFAULT_MAX_CONNECTIONS_PER_HOST);
+    }
+
+    /**
+     * @param jiraUrl the base URL of the Jira instance, e.g. <tt>https://issues.apache.org/jira</tt>
+     * @param connectTimeout the timeout for establishing a connection
+     * @param readTimeout the maximum time to wait for data on an established connection
+     * @param maxConnectionsPerHost the maximum number of concurrent connections to the Jira host
+     */
+    public JiraClient(String jiraUrl, Duration connectTimeout, Duration readTimeout, int maxConnectionsPerHost) {
+        this.jiraUrl = jiraUrl;
+
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+        connectionManager.setMaxTotal(maxConnectionsPerHost);
+
+        ConnectionKeepAliveStrategy keepAlive = (response, context) -> {
+            long announced = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return announced > 0 ? announced : DEFAULT_KEEP_ALIVE_MILLIS;
+        };
+
+        // content compression (gzip, deflate) is enabled by default
+        client = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy(keepAlive)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout((int) connectTimeout.toMillis())
+                        .setSocketTimeout((int) readTimeout.toMillis())
+                        .build())
+                .build();
+
+        limit = new AdaptiveLimit(maxConnectionsPerHost);
+        circuitBreaker = new CircuitBreaker(CIRCUIT_BREAKER_THRESHOLD, CIRCUIT_BREAKER_DURATION, Clock.systemUTC());
+    }
+
+    /**
+     * @param retries how often a throttled or failed call is retried
+     * @param maxBackoff the longest delay before a retry, calls are not retried if Jira asks for a longer one
+     */
+    public void setRetries(int retries, Duration maxBackoff) {
+        this.retries = retries;
+        this.maxBackoff = maxBackoff;
+    }
+
+    void setBaseBackoff(Duration baseBackoff) {
+        this.baseBackoff = baseBackoff;
+    }
+
+    int getConcurrencyLimit() {
+        return limit.getLimit();
+    }
+
+    /**
+     * @param metrics records the number and duration of the search calls
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Runs a single search call, returning one page of results
+     *
+     * @param jql the query
+     * @param startAt the index of the first result to return
+     * @param maxResults the maximum number of results to return, Jira may return less
+     * @return the search response
+     * @throws JiraUnavailableException in case Jira could not be reached or kept throttling the call
+     * @throws IOException in case the call fails or returns an unexpected status
+     */
+    public Response search(String jql, int startAt, int maxResults) throws IOException {
+
+        HttpGet get;
+        try {
+            URIBuilder builder = new URIBuilder(jiraUrl + "/rest/api/2/search")
+                    .addParameter("jql", jql)
+                    // don't fail a whole batch because of a single unknown or inaccessible key
+                    .addParameter("validateQuery", "false")
+                    .addParameter("fields", "key,summary,issuetype")
+                    .addParameter("startAt", String.valueOf(startAt))
+                    .addParameter("maxResults", String.valueOf(maxResults));
+
+            get = new HttpGet(builder.build());
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid Jira URL " + jiraUrl, e);
+        }
+
+        if (!circuitBreaker.allow()) {
+            metrics.count("jira.circuit-open", 1);
+            throw new JiraUnavailableException("Not calling Jira for a while after repeated failures");
+        }
+
+        try {
+            Response response = searchWithRetries(get);
+            circuitBreaker.success();
+            return response;
+        } catch (JiraUnavailableException e) {
+            circuitBreaker.failure();
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            circuitBreaker.abandoned();
+            throw e;
+        }
+    }
+
+    private Response searchWithRetries(HttpGet get) throws IOException {
+
+        for (int attempt = 1; ; attempt++) {
+
+            try {
+                limit.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a Jira connection");
+            }
+
+            Duration delay;
+            AdaptiveLimit.Outcome outcome = AdaptiveLimit.Outcome.FAILED;
+            try {
+                Response response = execute(get);
+                outcome = AdaptiveLimit.Outcome.SUCCEEDED;
+                return response;
+            } catch (RetryableException e) {
+                if (e.throttled) {
+                    outcome = AdaptiveLimit.Outcome.THROTTLED;
+                }
+                delay = e.retryAfter != null ? e.retryAfter : backoff(attempt);
+                if (attempt > retries || delay.compareTo(maxBackoff) > 0) {
+                    throw new JiraUnavailableException(e.getMessage() + " after " + attempt + " attempt(s)", e);
+                }
+            } catch (UnknownHostException e) {
+                throw new JiraUnavailableException("Unknown Jira host " + e.getMessage(), e);
+            } finally {
+                limit.release(outcome);
+            }
+
+            if (circuitBreaker.isOpen()) {
+                // other calls gave up meanwhile
+                throw new JiraUnavailableException("Not retrying a Jira call after repeated failures");
+            }
+
+            metrics.count("jira.retries", 1);
+            try {
+                Thread.sleep(delay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to retry a Jira call");
+            }
+        }
+    }
+
+    private Response execute(HttpGet get) throws IOException {
+
+        metrics.count("jira.requests", 1);
+        try (Metrics.Timer timer = metrics.start("jira.search");
+                CloseableHttpResponse response = client.execute(get)) {
+            int status = response.getStatusLine().getStatusCode();
+            if (status != 200) {
+                // drain the body so that the connection can be reused
+                EntityUtils.consumeQuietly(response.getEntity());
+                if (status == 429 || status == 503) {
+                    metrics.count("jira.throttled", 1);
+                    throw new RetryableException("Search call returned status " + status, true, retryAfter(response));
+                }
+                if (status == 502 || status == 504) {
+                    throw new RetryableException("Search call returned status " + status, false, null);
+                }
+                throw new IOException("Search call returned status " + status);
+            }
+
+            try (Reader reader = new InputStreamReader(response.getEntity().getContent(), StandardCharsets.UTF_8)) {
+                return JiraJson.GSON.fromJson(reader, Response.class);
+            }
+        } catch (ConnectTimeoutException | NoHttpResponseException | SocketException | SocketTimeoutException e) {
+            throw new RetryableException("Search call failed : " + e.getMessage(), false, null);
+        }
+    }
+
+    /**
+     * @return the delay announced by the server, either in seconds or as a date, <code>null</code> if none
+     */
+    private static Duration retryAfter(HttpResponse response) {
+        Header header = response.getFirstHeader("Retry-After");
+        if (header == null) {
+            return null;
+        }
+        String value = header.getValue().trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            Date date = DateUtils.parseDate(value);
+            return date != null ? Duration.ofMillis(Math.max(0, date.getTime() - System.currentTimeMillis())) : null;
+        }
+    }
+
+    /**
+     * @return an exponentially growing delay, of which a random half is added as jitter
+     */
+    private Duration backoff(int attempt) {
+        long cap = Math.min(maxBackoff.toMillis(), baseBackoff.toMillis() << Math.min(attempt - 1, 20));
+        return Duration.ofMillis(cap / 2 + ThreadLocalRandom.current().nextLong(cap / 2 + 1));
+    }
+
+    private static class RetryableException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final boolean throttled;
+        private final transient Duration retryAfter;
+
+        RetryableException(String message, boolean throttled, Duration retryAfter) {
+            super(message);
+            this.throttled = throttled;
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.close();
+        connectionManager.shutdown();
+    }
+}
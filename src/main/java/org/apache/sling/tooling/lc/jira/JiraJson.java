@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.jira;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * The shared {@link Gson} instance for reading Jira responses and storing issues
+ *
+ * <p>Issues and search responses are read with streaming adapters, which only keep the key, the summary and the name
+ * of the issue type and skip everything else Jira sends. Issues are written in the same shape as Jira returns them,
+ * so stored issues can be read back with the same adapter.
+ */
+public final class JiraJson {
+
+    public static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(Issue.class, new IssueAdapter().nullSafe())
+            .registerTypeAdapter(Response.class, new ResponseAdapter().nullSafe())
+            .create();
+
+    private JiraJson() {}
+
+    static final class IssueAdapter extends TypeAdapter<Issue> {
+
+        @Override
+        public Issue read(JsonReader in) throws IOException {
+
+            String key = null;
+            String summary = null;
+            String issueType = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if ("key".equals(name)) {
+                    key = nextString(in);
+                } else if ("fields".equals(name) && in.peek() == JsonToken.BEGIN_OBJECT) {
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        String field = in.nextName();
+                        if ("summary".equals(field)) {
+                            summary = nextString(in);
+                        } else if ("issuetype".equals(field) && in.peek() == JsonToken.BEGIN_OBJECT) {
+                            issueType = readName(in);
+                        } else {
+                            in.skipValue();
+                        }
+                    }
+                    in.endObject();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+
+            if (key == null) {
+                throw new JsonParseException("Issue without key at " + in.getPath());
+            }
+            return new Issue(key, new Fields(summary, new IssueType(issueType)));
+        }
+
+        private static String readName(JsonReader in) throws IOException {
+            String name = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                if ("name".equals(in.nextName())) {
+                    name = nextString(in);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return name;
+        }
+
+        @Override
+        public void write(JsonWriter out, Issue issue) throws IOException {
+            out.beginObject();
+            out.name("key").value(issue.getKey());
+            Fields fields = issue.getFields();
+            if (fields != null) {
+                out.name("fields").beginObject();
+                out.name("summary").value(fields.getSummary());
+                if (fields.getIssuetype() != null) {
+                    out.name("issuetype").beginObject();
+                    out.name("name").value(fields.getIssuetype().getName());
+                    out.endObject();
+                }
+                out.endObject();
+            }
+            out.endObject();
+        }
+    }
+
+    static final class ResponseAdapter extends TypeAdapter<Response> {
+
+        private final IssueAdapter issueAdapter = new IssueAdapter();
+
+        @Override
+        public Response read(JsonReader in) throws IOException {
+
+            int startAt = 0;
+            int maxResults = 0;
+            int total = 0;
+            List<Issue> issues = new ArrayList<>();
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if ("startAt".equals(name)) {
+                    startAt = in.nextInt();
+                } else if ("maxResults".equals(name)) {
+                    maxResults = in.nextInt();
+                } else if ("total".equals(name)) {
+                    total = in.nextInt();
+                } else if ("issues".equals(name) && in.peek() == JsonToken.BEGIN_ARRAY) {
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        issues.add(issueAdapter.read(in));
+                    }
+                    in.endArray();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+
+            return new Response(startAt, maxResults, total, issues);
+        }
+
+        @Override
+        public void write(JsonWriter out, Response response) throws IOException {
+            out.beginObject();
+            out.name("startAt").value(response.getStartAt());
+            out.name("maxResults").value(response.getMaxResults());
+            out.name("total").value(response.getTotal());
+            out.name("issues").beginArray();
+            for (Issue issue : response.getIssues()) {
+                issueAdapter.write(out, issue);
+            }
+            out.endArray();
+            out.endObject();
+        }
+    }
+
+    private static String nextString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+}
@@ -22,12 +22,30 @@ import java.util.List;
 
 public class Response {
 
+    private final int startAt;
+    private final int maxResults;
+    private final int total;
     private final List<Issue> issues;
 
-    public Response(List<Issue> issues) {
+    public Response(int startAt, int maxResults, int total, List<Issue> issues) {
+        this.startAt = startAt;
+        this.maxResults = maxResults;
+        this.total = total;
         this.issues = issues;
     }
 
+    public int getStartAt() {
+        return startAt;
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
     public List<Issue> getIssues() {
         return issues;
     }
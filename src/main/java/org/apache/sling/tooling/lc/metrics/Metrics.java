@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.metrics;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.gson.GsonBuilder;
+
+/**
+ * Collects timings and counters of a run
+ *
+ * <p>Timers count their samples in logarithmic buckets, so that percentiles can be reported, e.g. the latency of
+ * looking up the changes of a single artifact, in constant memory however long the run. The percentiles are accurate
+ * to about 3%, the count, total and maximum are exact. All methods are safe to call from several threads.
+ */
+public class Metrics {
+
+    /**
+     * Ignores everything, used when no metrics were requested
+     */
+    public static final Metrics DISABLED = new Metrics(false);
+
+    private final boolean enabled;
+    private final ConcurrentMap<String, Histogram> timers = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentSkipListMap<>();
+
+    public Metrics() {
+        this(true);
+    }
+
+    private Metrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Starts timing, the time is recorded when the returned timer is closed
+     *
+     * @param name the timer name
+     * @return the running timer
+     */
+    public Timer start(String name) {
+        return new Timer(name);
+    }
+
+    /**
+     * @param name the timer name
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(String name, long nanos) {
+        if (enabled) {
+            timers.computeIfAbsent(name, n -> new Histogram()).record(nanos);
+        }
+    }
+
+    /**
+     * @param name the counter name
+     * @param amount the amount to add
+     */
+    public void count(String name, long amount) {
+        if (enabled) {
+            counters.computeIfAbsent(name, n -> new LongAdder()).add(amount);
+        }
+    }
+
+    public long getCount(String name) {
+        LongAdder counter = counters.get(name);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    /**
+     * @return the summary of a timer, <code>null</code> if nothing was recorded
+     */
+    public TimerSummary getTimer(String name) {
+        Histogram histogram = timers.get(name);
+        return histogram != null ? new TimerSummary(histogram) : null;
+    }
+
+    /**
+     * Prints the timers and counters as a table
+     */
+    public void print(PrintStream out) {
+
+        out.format("%n%-40s %8s %12s %12s %12s %12s%n", "Timer", "count", "total ms", "p50 ms", "p95 ms", "max ms");
+        for (String name : timers.keySet()) {
+            TimerSummary timer = getTimer(name);
+            out.format(
+                    "%-40s %8d %12.1f %12.1f %12.1f %12.1f%n",
+                    name, timer.count, timer.totalMillis, timer.p50Millis, timer.p95Millis, timer.maxMillis);
+        }
+
+        out.format("%n%-40s %12s%n", "Counter", "value");
+        counters.forEach((name, value) -> out.format("%-40s %12d%n", name, value.sum()));
+    }
+
+    /**
+     * Writes the timers and counters as JSON
+     *
+     * @param file the file to write to
+     * @throws IOException in case the file cannot be written
+     */
+    public void write(Path file) throws IOException {
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        Map<String, TimerSummary> timerSummaries = new LinkedHashMap<>();
+        timers.keySet().forEach(name -> timerSummaries.put(name, getTimer(name)));
+        json.put("timers", timerSummaries);
+        Map<String, Long> counterValues = new LinkedHashMap<>();
+        counters.forEach((name, value) -> counterValues.put(name, value.sum()));
+        json.put("counters", counterValues);
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(json, writer);
+        }
+    }
+
+    /**
+     * Measures the time until it is closed
+     */
+    public class Timer implements AutoCloseable {
+
+        private final String name;
+        private final long start = System.nanoTime();
+
+        private Timer(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void close() {
+            record(name, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Counts samples in buckets of 32 per power of two, samples below 32 nanoseconds are counted exactly
+     */
+    private static class Histogram {
+
+        private static final int SUB_BUCKET_BITS = 5;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray((63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS);
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos) {
+            long value = Math.max(0, nanos);
+            buckets.incrementAndGet(indexOf(value));
+            total.add(value);
+            max.accumulate(value);
+        }
+
+        private static int indexOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int shift = exponent - SUB_BUCKET_BITS;
+            int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+            return (shift + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        /**
+         * @return the highest value counted in the bucket
+         */
+        private static long highestValueOf(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int shift = index / SUB_BUCKETS - 1;
+            long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+            return lowest + (1L << shift) - 1;
+        }
+    }
+
+    /**
+     * The summary of a timer, in milliseconds
+     */
+    public static class TimerSummary {
+
+        private final int count;
+        private final double totalMillis;
+        private final double p50Millis;
+        private final double p95Millis;
+        private final double maxMillis;
+
+        private TimerSummary(Histogram histogram) {
+            long[] counts = new long[histogram.buckets.length()];
+            long samples = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = histogram.buckets.get(i);
+                samples += counts[i];
+            }
+            long max = histogram.max.get();
+
+            count = (int) samples;
+            totalMillis = toMillis(histogram.total.sum());
+            p50Millis = toMillis(Math.min(max, percentile(counts, samples, 50)));
+            p95Millis = toMillis(Math.min(max, percentile(counts, samples, 95)));
+            maxMillis = toMillis(max);
+        }
+
+        private static long percentile(long[] counts, long samples, int percentile) {
+            // nearest rank, reported as the highest value of the bucket holding it
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * samples));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Histogram.highestValueOf(i);
+                }
+            }
+            return 0;
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getTotalMillis() {
+            return totalMillis;
+        }
+
+        public double getP50Millis() {
+            return p50Millis;
+        }
+
+        public double getP95Millis() {
+            return p95Millis;
+        }
+
+        public double getMaxMillis() {
+            return maxMillis;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.report;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import org.apache.sling.feature.ArtifactId;
+import org.apache.sling.tooling.lc.aether.ArtifactKey;
+import org.apache.sling.tooling.lc.aether.VersionChange;
+import org.apache.sling.tooling.lc.jira.Issue;
+
+/**
+ * Writes the report as CSV, one line per added, removed or changed artifact
+ *
+ * <p>Fields are quoted as described in RFC 4180, the issues of a change are listed as space-separated keys.
+ */
+public class CsvReportWriter implements ReportWriter {
+
+    private static final String HEADER =
+            "launchpad_from,launchpad_to,change,group_id,artifact_id,classifier,type,version_from,version_to,issues";
+
+    private final Writer out;
+    private String fromVersion;
+    private String toVersion;
+    private Section section;
+
+    public CsvReportWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void startReport(List<String> versions) throws IOException {
+        out.write(HEADER);
+        out.write("\r\n");
+    }
+
+    @Override
+    public void startComparison(String fromVersion, String toVersion) {
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+    }
+
+    @Override
+    public void startSection(Section section) {
+        this.section = section;
+    }
+
+    @Override
+    public void artifact(ArtifactId artifact) throws IOException {
+        boolean added = section == Section.ADDED;
+        line(
+                artifact.getGroupId(),
+                artifact.getArtifactId(),
+                artifact.getClassifier(),
+                artifact.getType(),
+                added ? null : artifact.getVersion(),
+                added ? artifact.getVersion() : null,
+                null);
+    }
+
+    @Override
+    public void changed(ArtifactKey artifact, VersionChange change, List<Issue> issues) throws IOException {
+        line(
+                artifact.getGroupId(),
+                artifact.getArtifactId(),
+                artifact.getClassifier(),
+                artifact.getType(),
+                change.getFrom(),
+                change.getTo(),
+                issues != null ? issues.stream().map(Issue::getKey).collect(Collectors.joining(" ")) : null);
+    }
+
+    private void line(String... fields) throws IOException {
+        field(fromVersion);
+        out.write(',');
+        field(toVersion);
+        out.write(',');
+        field(section.name().toLowerCase(Locale.ROOT));
+        for (String field : fields) {
+            out.write(',');
+            field(field);
+        }
+        out.write("\r\n");
+    }
+
+    private void field(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
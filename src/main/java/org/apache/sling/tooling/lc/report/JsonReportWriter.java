@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.report;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+import com.google.gson.stream.JsonWriter;
+import org.apache.sling.feature.ArtifactId;
+import org.apache.sling.tooling.lc.aether.ArtifactKey;
+import org.apache.sling.tooling.lc.aether.VersionChange;
+import org.apache.sling.tooling.lc.jira.Issue;
+
+/**
+ * Writes the report as a JSON document, streamed as the records come in
+ *
+ * <pre>
+ * { "versions": [ "11", "12" ],
+ *   "comparisons": [ { "from": "11", "to": "12",
+ *     "added": [ { "groupId": ..., "artifactId": ..., "classifier": ..., "type": ..., "version": ... } ],
+ *     "removed": [ ... ],
+ *     "changed": [ { "groupId": ..., "artifactId": ..., "classifier": ..., "type": ..., "from": ..., "to": ...,
+ *       "issues": [ { "key": ..., "summary": ..., "type": ... } ] } ] } ] }
+ * </pre>
+ *
+ * <p>Classifiers are only written when set, issues only when they are known.
+ */
+public class JsonReportWriter implements ReportWriter {
+
+    private final Writer out;
+    private final JsonWriter json;
+    private boolean inComparison;
+    private boolean inSection;
+
+    public JsonReportWriter(Writer out) {
+        this.out = out;
+        this.json = new JsonWriter(out);
+        this.json.setIndent("  ");
+    }
+
+    @Override
+    public void startReport(List<String> versions) throws IOException {
+        json.beginObject();
+        json.name("versions").beginArray();
+        for (String version : versions) {
+            json.value(version);
+        }
+        json.endArray();
+        json.name("comparisons").beginArray();
+    }
+
+    @Override
+    public void startComparison(String fromVersion, String toVersion) throws IOException {
+        endComparison();
+        json.beginObject();
+        json.name("from").value(fromVersion);
+        json.name("to").value(toVersion);
+        inComparison = true;
+    }
+
+    @Override
+    public void startSection(Section section) throws IOException {
+        endSection();
+        json.name(section.name().toLowerCase(Locale.ROOT)).beginArray();
+        inSection = true;
+    }
+
+    @Override
+    public void artifact(ArtifactId artifact) throws IOException {
+        json.beginObject();
+        coordinates(artifact.getGroupId(), artifact.getArtifactId(), artifact.getClassifier(), artifact.getType());
+        json.name("version").value(artifact.getVersion());
+        json.endObject();
+    }
+
+    @Override
+    public void changed(ArtifactKey artifact, VersionChange change, List<Issue> issues) throws IOException {
+        json.beginObject();
+        coordinates(artifact.getGroupId(), artifact.getArtifactId(), artifact.getClassifier(), artifact.getType());
+        json.name("from").value(change.getFrom());
+        json.name("to").value(change.getTo());
+        if (issues != null) {
+            json.name("issues").beginArray();
+            for (Issue issue : issues) {
+                json.beginObject();
+                json.name("key").value(issue.getKey());
+                json.name("summary").value(issue.getSummary());
+                json.name("type").value(issue.getIssueType());
+                json.endObject();
+            }
+            json.endArray();
+        }
+        json.endObject();
+    }
+
+    private void coordinates(String groupId, String artifactId, String classifier, String type) throws IOException {
+        json.name("groupId").value(groupId);
+        json.name("artifactId").value(artifactId);
+        if (classifier != null && !classifier.isEmpty()) {
+            json.name("classifier").value(classifier);
+        }
+        json.name("type").value(type);
+    }
+
+    private void endSection() throws IOException {
+        if (inSection) {
+            json.endArray();
+            inSection = false;
+        }
+    }
+
+    private void endComparison() throws IOException {
+        endSection();
+        if (inComparison) {
+            json.endObject();
+            inComparison = false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            endComparison();
+            json.endArray();
+            json.endObject();
+            json.flush();
+            out.write(System.lineSeparator());
+        } finally {
+            json.close();
+        }
+    }
+}
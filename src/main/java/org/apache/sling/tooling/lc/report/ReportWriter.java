@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.report;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.sling.feature.ArtifactId;
+import org.apache.sling.tooling.lc.aether.ArtifactKey;
+import org.apache.sling.tooling.lc.aether.VersionChange;
+import org.apache.sling.tooling.lc.jira.Issue;
+
+/**
+ * Writes the report one record at a time, without holding it in memory
+ *
+ * <p>The report starts with {@link #startReport(List)}. Each comparison of two launchpad versions starts with
+ * {@link #startComparison(String, String)} and is followed by the added, removed and changed artifacts, each group
+ * introduced by {@link #startSection(Section)}. Closing the writer completes the report.
+ */
+public interface ReportWriter extends Closeable {
+
+    enum Section {
+        ADDED,
+        REMOVED,
+        CHANGED
+    }
+
+    /**
+     * @param versions all compared launchpad versions
+     */
+    void startReport(List<String> versions) throws IOException;
+
+    void startComparison(String fromVersion, String toVersion) throws IOException;
+
+    void startSection(Section section) throws IOException;
+
+    /**
+     * @param artifact an artifact added or removed, depending on the section
+     */
+    void artifact(ArtifactId artifact) throws IOException;
+
+    /**
+     * @param artifact the changed artifact
+     * @param change the old and new versions
+     * @param issues the issues fixed by the change, <code>null</code> if they are not known
+     */
+    void changed(ArtifactKey artifact, VersionChange change, List<Issue> issues) throws IOException;
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.report;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Creates the report writers for the supported formats
+ */
+public class ReportWriters {
+
+    /**
+     * @param format <tt>plaintext</tt>, <tt>markdown</tt>, <tt>json</tt> or <tt>csv</tt>
+     * @param file the file to write to, or <code>null</code> to write to standard output
+     * @param issueUrl the URL to which issue keys are appended to link to the issues, where the format has links
+     * @return the writer, which must be closed to complete the report
+     * @throws IOException in case the file cannot be created
+     * @throws IllegalArgumentException in case the format is unknown
+     */
+    public static ReportWriter open(String format, Path file, String issueUrl) throws IOException {
+
+        checkSupported(format);
+
+        Writer out;
+        if (file != null) {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        } else {
+            out = new BufferedWriter(new OutputStreamWriter(new StandardOutput()));
+        }
+
+        return open(format, out, issueUrl);
+    }
+
+    /**
+     * @param format <tt>plaintext</tt>, <tt>markdown</tt>, <tt>json</tt> or <tt>csv</tt>
+     * @param out the buffered writer to write to, closed together with the report
+     * @param issueUrl the URL to which issue keys are appended to link to the issues, where the format has links
+     * @return the writer, which must be closed to complete the report
+     * @throws IllegalArgumentException in case the format is unknown
+     */
+    public static ReportWriter open(String format, Writer out, String issueUrl) {
+
+        checkSupported(format);
+
+        switch (format) {
+            case "markdown":
+                return new TextReportWriter(out, true, issueUrl);
+            case "json":
+                return new JsonReportWriter(out);
+            case "csv":
+                return new CsvReportWriter(out);
+            default:
+                return new TextReportWriter(out, false, issueUrl);
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the format is meant to be read by other programs, instead of people
+     */
+    public static boolean isMachineReadable(String format) {
+        return "json".equals(format) || "csv".equals(format);
+    }
+
+    /**
+     * @return <code>true</code> if a report can be written in this format
+     */
+    public static boolean isSupported(String format) {
+        return "plaintext".equals(format) || "markdown".equals(format) || isMachineReadable(format);
+    }
+
+    private static void checkSupported(String format) {
+        if (!isSupported(format)) {
+            throw new IllegalArgumentException(
+                    "Unknown output format " + format + ", expected plaintext, markdown, json or csv");
+        }
+    }
+
+    /**
+     * @return the media type of reports in this format
+     */
+    public static String getContentType(String format) {
+        switch (format) {
+            case "markdown":
+                return "text/markdown; charset=utf-8";
+            case "json":
+                return "application/json; charset=utf-8";
+            case "csv":
+                return "text/csv; charset=utf-8";
+            default:
+                return "text/plain; charset=utf-8";
+        }
+    }
+
+    /**
+     * Standard output, which stays open when the report is closed
+     */
+    private static class StandardOutput extends FilterOutputStream {
+
+        StandardOutput() {
+            super(System.out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
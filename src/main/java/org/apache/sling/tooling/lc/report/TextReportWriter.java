@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.report;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.List;
+
+import org.apache.sling.feature.ArtifactId;
+import org.apache.sling.tooling.lc.aether.ArtifactKey;
+import org.apache.sling.tooling.lc.aether.VersionChange;
+import org.apache.sling.tooling.lc.jira.Issue;
+
+/**
+ * Writes the report as aligned plain text, or as markdown with links to the Jira issues
+ */
+public class TextReportWriter implements ReportWriter {
+
+    private final PrintWriter out;
+    private final boolean markdown;
+    private final String issueUrl;
+    private boolean severalComparisons;
+
+    /**
+     * @param out the writer to write to, closed together with the report
+     * @param markdown <code>true</code> for markdown, <code>false</code> for plain text
+     * @param issueUrl the URL to which issue keys are appended to link to the issues in markdown
+     */
+    public TextReportWriter(Writer out, boolean markdown, String issueUrl) {
+        this.out = new PrintWriter(out);
+        this.markdown = markdown;
+        this.issueUrl = issueUrl;
+    }
+
+    @Override
+    public void startReport(List<String> versions) {
+        severalComparisons = versions.size() > 2;
+    }
+
+    @Override
+    public void startComparison(String fromVersion, String toVersion) {
+        if (!severalComparisons) {
+            return;
+        }
+        if (markdown) {
+            out.format("%n## %s -> %s%n", fromVersion, toVersion);
+        } else {
+            out.format("%nDifferences between Launchpad versions %s and %s:%n", fromVersion, toVersion);
+        }
+    }
+
+    @Override
+    public void startSection(Section section) {
+        switch (section) {
+            case ADDED:
+                out.format("%nAdded:%n");
+                break;
+            case REMOVED:
+                out.format("%nRemoved:%n");
+                break;
+            default:
+                out.format("%nChanged:%n");
+        }
+    }
+
+    @Override
+    public void artifact(ArtifactId a) {
+        if (markdown) {
+            out.format("* `%s`:**`%s`** %s%n", a.getGroupId(), a.getArtifactId(), a.getVersion());
+        } else {
+            out.format("    %-30s : %-55s : %s%n", a.getGroupId(), a.getArtifactId(), a.getVersion());
+        }
+    }
+
+    @Override
+    public void changed(ArtifactKey artifact, VersionChange change, List<Issue> issues) {
+
+        if (markdown) {
+            out.format(
+                    "* `%s`:**`%s`** %s -> %s%n",
+                    artifact.getGroupId(), artifact.getArtifactId(), change.getFrom(), change.getTo());
+        } else {
+            out.format(
+                    "    %-30s : %-55s : %s -> %s%n",
+                    artifact.getGroupId(), artifact.getArtifactId(), change.getFrom(), change.getTo());
+        }
+
+        if (issues == null) {
+            return;
+        }
+
+        for (Issue i : issues) {
+            if (markdown && i.isKeyOnly()) {
+                out.format("    * [%s](%s%s)%n", i.getKey(), issueUrl, i.getKey());
+            } else if (markdown) {
+                out.format(
+                        "    * [%s %s](%s%s) (%s)%n",
+                        i.getKey(), i.getSummary(), issueUrl, i.getKey(), i.getIssueType());
+            } else if (i.isKeyOnly()) {
+                out.format("        %s%n", i.getKey());
+            } else {
+                out.format("        %-10s - %s%n", i.getKey(), i.getSummary());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+        if (out.checkError()) {
+            throw new IOException("Failed writing the report");
+        }
+    }
+}
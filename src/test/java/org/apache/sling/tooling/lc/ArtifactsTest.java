@@ -18,9 +18,13 @@
  */
 package org.apache.sling.tooling.lc;
 
+import java.util.Arrays;
+
 import org.junit.Test;
 
+import static org.apache.sling.tooling.lc.aether.Artifacts.featureCoordinates;
 import static org.apache.sling.tooling.lc.aether.Artifacts.launchpadCoordinates;
+import static org.apache.sling.tooling.lc.aether.Artifacts.launchpadVersions;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 
@@ -41,4 +45,40 @@ public class ArtifactsTest {
                 launchpadCoordinates("13-SNAPSHOT"),
                 equalTo("org.apache.sling:org.apache.sling.starter:slingosgifeature:oak_tar:13-SNAPSHOT"));
     }
+
+    @Test
+    public void launchpadVersionList() {
+
+        assertThat(launchpadVersions("11,12,13-SNAPSHOT"), equalTo(Arrays.asList("11", "12", "13-SNAPSHOT")));
+    }
+
+    @Test
+    public void launchpadVersionRange() {
+
+        assertThat(launchpadVersions("9..13-SNAPSHOT"), equalTo(Arrays.asList("9", "10", "11", "12", "13-SNAPSHOT")));
+        assertThat(launchpadVersions("11..12"), equalTo(Arrays.asList("11", "12")));
+    }
+
+    @Test
+    public void featureCoordinatesOrLaunchpadVersion() {
+
+        assertThat(
+                featureCoordinates("12"),
+                equalTo("org.apache.sling:org.apache.sling.starter:slingosgifeature:oak_tar:12"));
+        assertThat(
+                featureCoordinates("com.example:product:slingosgifeature:aggregate:1.4.0"),
+                equalTo("com.example:product:slingosgifeature:aggregate:1.4.0"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidFeatureCoordinates() {
+
+        featureCoordinates("com.example:product");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidLaunchpadVersionRange() {
+
+        launchpadVersions("12..11");
+    }
 }
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.sling.tooling.lc.jira.Fields;
+import org.apache.sling.tooling.lc.jira.Issue;
+import org.apache.sling.tooling.lc.jira.IssueType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ChangeLogStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void changeLogsArePersisted() throws IOException {
+
+        Path file = folder.getRoot().toPath().resolve("store/changelogs.json");
+
+        ChangeLogStore store = ChangeLogStore.open(file, "SLING");
+        store.put(new ChangeLog(
+                "org.apache.sling.api",
+                "2.16.4",
+                "2.18.0",
+                Arrays.asList("SLING-1 fix", "Cleanup"),
+                Arrays.asList(new Issue("SLING-1", new Fields("Fix", new IssueType("Bug"))))));
+        store.save();
+
+        ChangeLog changeLog = ChangeLogStore.open(file, "SLING").get("org.apache.sling.api", "2.16.4", "2.18.0");
+        assertThat(changeLog.getMessages(), equalTo(Arrays.asList("SLING-1 fix", "Cleanup")));
+        assertThat(changeLog.getIssues().get(0).getKey(), equalTo("SLING-1"));
+        assertThat(changeLog.getIssues().get(0).getIssueType(), equalTo("Bug"));
+    }
+
+    @Test
+    public void changeLogsOfOtherIssueKeyRulesAreDropped() throws IOException {
+
+        Path file = folder.getRoot().toPath().resolve("changelogs.json");
+        // written before the format and projects were stored
+        Files.write(
+                file,
+                ("[{\"artifactId\":\"org.apache.sling.api\",\"from\":\"2.16.4\",\"to\":\"2.18.0\","
+                                + "\"messages\":[\"SLING-1 fix\"],\"issues\":[]}]")
+                        .getBytes(StandardCharsets.UTF_8));
+        assertThat(ChangeLogStore.open(file, "SLING").get("org.apache.sling.api", "2.16.4", "2.18.0"), nullValue());
+
+        ChangeLogStore store = ChangeLogStore.open(file, "SLING");
+        store.put(new ChangeLog(
+                "org.apache.sling.api", "2.16.4", "2.18.0", Collections.emptyList(), Collections.emptyList()));
+        store.save();
+
+        assertThat(ChangeLogStore.open(file, "SLING").get("org.apache.sling.api", "2.16.4", "2.18.0"), notNullValue());
+        assertThat(ChangeLogStore.open(file, "SLING,OAK").get("org.apache.sling.api", "2.16.4", "2.18.0"), nullValue());
+    }
+
+    @Test
+    public void snapshotsAreNotStored() throws IOException {
+
+        ChangeLogStore store = ChangeLogStore.open(folder.getRoot().toPath().resolve("changelogs.json"), "SLING");
+        store.put(new ChangeLog(
+                "org.apache.sling.api", "2.16.4", "2.18.1-SNAPSHOT", Collections.emptyList(), Collections.emptyList()));
+
+        assertThat(store.get("org.apache.sling.api", "2.16.4", "2.18.1-SNAPSHOT"), nullValue());
+        assertThat(store.get("org.apache.sling.api", "2.16.4", "2.18.0"), nullValue());
+    }
+}
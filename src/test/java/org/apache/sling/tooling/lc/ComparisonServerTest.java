@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class ComparisonServerTest {
+
+    private ComparisonServer server;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void start() throws IOException {
+        server = new ComparisonServer(
+                new ComparerContext(
+                        "..",
+                        Options.parse("--offline", "--server-features=" + folder.getRoot(), "--server-threads=2")),
+                0);
+        server.start();
+    }
+
+    @After
+    public void stop() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void queryIsDecoded() {
+
+        Map<String, String> query = ComparisonServer.parseQuery("versions=11%2C12&format=json&flag");
+
+        assertThat(query.get("versions"), equalTo("11,12"));
+        assertThat(query.get("format"), equalTo("json"));
+        assertThat(query.get("flag"), equalTo(""));
+    }
+
+    @Test
+    public void portIsValidated() {
+
+        assertThat(ComparisonServer.getPort(Options.parse("--serve")), equalTo(ComparisonServer.DEFAULT_PORT));
+        assertThat(ComparisonServer.getPort(Options.parse("--serve=0")), equalTo(0));
+
+        for (String port : Arrays.asList("abc", "-1", "65536")) {
+            try {
+                ComparisonServer.getPort(Options.parse("--serve=" + port));
+                fail("Expected port " + port + " to be rejected");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), containsString("for --serve : " + port));
+            }
+        }
+    }
+
+    @Test
+    public void invalidRequests() throws IOException {
+
+        HttpURLConnection missingVersions = open("/compare");
+        assertThat(missingVersions.getResponseCode(), equalTo(400));
+        assertThat(read(missingVersions.getErrorStream()), containsString("Missing versions parameter"));
+
+        HttpURLConnection unknownFormat = open("/compare?versions=11,12&format=xml");
+        assertThat(unknownFormat.getResponseCode(), equalTo(400));
+        assertThat(read(unknownFormat.getErrorStream()), containsString("Unknown output format xml"));
+
+        HttpURLConnection wrongMethod = open("/refresh");
+        assertThat(wrongMethod.getResponseCode(), equalTo(405));
+        // read to the end, so that the server is not stopped while still writing the response
+        assertThat(read(wrongMethod.getErrorStream()), containsString("Only POST is supported"));
+    }
+
+    @Test
+    public void localFeaturesOutsideOfTheFeatureDirectoryAreRejected() throws IOException {
+
+        File outside = folder.newFile("../outside-" + System.nanoTime() + ".json");
+        try {
+            HttpURLConnection escaping =
+                    open("/compare?versions=" + outside.getAbsolutePath() + ",../" + outside.getName());
+            assertThat(escaping.getResponseCode(), equalTo(400));
+            assertThat(read(escaping.getErrorStream()), containsString("No feature"));
+        } finally {
+            Files.delete(outside.toPath());
+        }
+
+        HttpURLConnection missing = open("/compare?versions=missing.json,12");
+        assertThat(missing.getResponseCode(), equalTo(400));
+        assertThat(read(missing.getErrorStream()), containsString("No feature missing.json"));
+    }
+
+    @Test
+    public void versionsAreNotReadFromTheWorkingDirectory() throws IOException {
+
+        // a file named like a launchpad version must not take its place
+        Path file = Paths.get(String.valueOf(System.nanoTime()));
+        Files.write(file, "{ \"id\": \"org.example:local:slingosgifeature:1.0\" }".getBytes(StandardCharsets.UTF_8));
+        try {
+            HttpURLConnection version = open("/compare?versions=" + file + "," + file);
+            assertThat(version.getResponseCode(), equalTo(500));
+            assertThat(read(version.getErrorStream()), containsString("org.apache.sling.starter"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void localFeaturesNeedAFeatureDirectory() throws IOException {
+
+        try (ComparisonServer restricted =
+                new ComparisonServer(new ComparerContext("..", Options.parse("--offline")), 0)) {
+            restricted.start();
+            InetSocketAddress address = restricted.getAddress();
+            HttpURLConnection local = (HttpURLConnection)
+                    new URL("http", address.getHostString(), address.getPort(), "/compare?versions=/etc,12")
+                            .openConnection();
+            assertThat(local.getResponseCode(), equalTo(400));
+            assertThat(read(local.getErrorStream()), containsString("local features are only read with"));
+        }
+    }
+
+    @Test
+    public void requestsAreHandledConcurrently() throws Exception {
+
+        // another request is answered while the first one still waits for the end of its headers
+        try (Socket idle =
+                new Socket(server.getAddress().getAddress(), server.getAddress().getPort())) {
+            idle.getOutputStream()
+                    .write("GET /compare?versions=11 HTTP/1.1\r\nHost: localhost\r\n"
+                            .getBytes(StandardCharsets.US_ASCII));
+            HttpURLConnection other = open("/compare");
+            other.setReadTimeout(10_000);
+            assertThat(other.getResponseCode(), equalTo(400));
+        }
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        InetSocketAddress address = server.getAddress();
+        return (HttpURLConnection) new URL("http", address.getHostString(), address.getPort(), path).openConnection();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (InputStream i = in) {
+            return new String(i.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.sling.feature.ArtifactId;
+import org.apache.sling.tooling.lc.aether.ArtifactKey;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class DiffEngineTest {
+
+    private static final Map<ArtifactKey, String> FROM = versions(
+            "org.apache.sling:org.apache.sling.api:2.16.4",
+            "org.apache.sling:org.apache.sling.engine:2.6.20",
+            "commons-io:commons-io:2.6",
+            "org.apache.sling:org.apache.sling.jcr.api:2.4.0");
+
+    private static final Map<ArtifactKey, String> TO = versions(
+            "org.apache.sling:org.apache.sling.jcr.api:2.4.0",
+            "org.apache.sling:org.apache.sling.api:2.27.2",
+            "org.apache.felix:org.apache.felix.http.jetty:4.2.0",
+            "org.apache.sling:org.apache.sling.engine:2.15.6",
+            "org.apache.sling:org.apache.sling.xss:2.3.0");
+
+    private static final List<String> EXPECTED = asList(
+            "- commons-io 2.6",
+            "+ org.apache.felix.http.jetty 4.2.0",
+            "* org.apache.sling.api 2.16.4 -> 2.27.2",
+            "* org.apache.sling.engine 2.6.20 -> 2.15.6",
+            "+ org.apache.sling.xss 2.3.0");
+
+    @Test
+    public void differencesInKeyOrder() {
+
+        assertThat(differences(FROM, TO), equalTo(EXPECTED));
+    }
+
+    @Test
+    public void sortedDifferencesInKeyOrder() {
+
+        assertThat(differences(new TreeMap<>(FROM), new TreeMap<>(TO)), equalTo(EXPECTED));
+    }
+
+    private static List<String> differences(Map<ArtifactKey, String> from, Map<ArtifactKey, String> to) {
+
+        List<String> differences = new ArrayList<>();
+        DiffEngine.diff(from, to, new DiffEngine.Handler() {
+            @Override
+            public void added(ArtifactKey key, String version) {
+                differences.add("+ " + key.getArtifactId() + " " + version);
+            }
+
+            @Override
+            public void removed(ArtifactKey key, String version) {
+                differences.add("- " + key.getArtifactId() + " " + version);
+            }
+
+            @Override
+            public void changed(ArtifactKey key, String fromVersion, String toVersion) {
+                differences.add("* " + key.getArtifactId() + " " + fromVersion + " -> " + toVersion);
+            }
+        });
+
+        return differences;
+    }
+
+    private static Map<ArtifactKey, String> versions(String... ids) {
+        Map<ArtifactKey, String> versions = new HashMap<>();
+        for (String id : ids) {
+            ArtifactId artifactId = ArtifactId.parse(id);
+            versions.put(ArtifactKey.of(artifactId), artifactId.getVersion());
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.sling.tooling.lc.jira.Fields;
+import org.apache.sling.tooling.lc.jira.Issue;
+import org.apache.sling.tooling.lc.jira.IssueIndex;
+import org.apache.sling.tooling.lc.jira.IssueKeyScanner;
+import org.apache.sling.tooling.lc.jira.IssueType;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class LaunchpadComparerTest {
+
+    private static final String API = "org.apache.sling.api";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path localRepository;
+    private Path issueCache;
+
+    @Before
+    public void createRepository() throws IOException, GitAPIException {
+
+        File repository = folder.newFolder("checkout", "org-apache-sling-api");
+        try (Git git = Git.init().setDirectory(repository).call()) {
+            commit(git, "Initial import");
+            tag(git, API + "-1.0.0");
+            commit(git, "SLING-1 first fix");
+            tag(git, API + "-1.1.0");
+            commit(git, "SLING-2 second fix");
+            commit(git, "SLING-3 third fix");
+            tag(git, API + "-1.2.0");
+        }
+
+        // working offline, the issues are only looked up in the cache
+        issueCache = folder.getRoot().toPath().resolve("issues.json");
+        String issues = "[" + issue("SLING-1") + "," + issue("SLING-2") + "," + issue("SLING-3") + "]";
+        Files.write(issueCache, issues.getBytes(StandardCharsets.UTF_8));
+
+        localRepository = folder.newFolder("local-repo").toPath();
+    }
+
+    private static void commit(Git git, String message) throws GitAPIException {
+        git.commit().setMessage(message).call();
+    }
+
+    private static void tag(Git git, String name) throws GitAPIException {
+        git.tag().setName(name).setAnnotated(true).call();
+    }
+
+    private static String issue(String key) {
+        return "{\"key\":\"" + key + "\",\"summary\":\"Summary of " + key + "\",\"issueType\":\"Bug\",\"fetched\":0}";
+    }
+
+    /**
+     * Installs a starter feature in the local repository, where it is found without network access
+     */
+    private void starter(String version, String... bundles) throws IOException {
+        Path feature = localRepository.resolve("org/apache/sling/org.apache.sling.starter/" + version
+                + "/org.apache.sling.starter-" + version + "-oak_tar.slingosgifeature");
+        Files.createDirectories(feature.getParent());
+        String json = "{ \"id\": \"org.apache.sling:org.apache.sling.starter:slingosgifeature:oak_tar:" + version
+                + "\", \"bundles\": [ \"" + String.join("\", \"", bundles) + "\" ] }";
+        Files.write(feature, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void matrixComparesConsecutiveVersions() throws Exception {
+
+        starter("91", "org.apache.sling:" + API + ":1.0.0", "org.example:old:1.0");
+        starter("92", "org.apache.sling:" + API + ":1.1.0", "org.example:new:1.0");
+        starter("93", "org.apache.sling:" + API + ":1.2.0", "org.example:new:1.0");
+
+        Options options = Options.parse(
+                "--local-repo=" + localRepository, "--offline", "--jira-cache=" + issueCache, "--changelog-store=none");
+
+        List<String> output = run(new LaunchpadComparer(
+                Arrays.asList("91", "92", "93"),
+                "plaintext",
+                folder.getRoot().toPath().resolve("checkout").toString(),
+                options));
+
+        assertThat(
+                output,
+                equalTo(Arrays.asList(
+                        "Differences between Launchpad versions 91 and 92:",
+                        "Added:",
+                        "org.example : new : 1.0",
+                        "Removed:",
+                        "org.example : old : 1.0",
+                        "Changed:",
+                        "org.apache.sling : " + API + " : 1.0.0 -> 1.1.0",
+                        "SLING-1 - Summary of SLING-1",
+                        "Differences between Launchpad versions 92 and 93:",
+                        "Added:",
+                        "Removed:",
+                        "Changed:",
+                        "org.apache.sling : " + API + " : 1.1.0 -> 1.2.0",
+                        "SLING-2 - Summary of SLING-2",
+                        "SLING-3 - Summary of SLING-3")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void singleVersionIsRejected() {
+        new LaunchpadComparer(Arrays.asList("91"), "plaintext", "..", Options.parse());
+    }
+
+    @Test
+    public void changeLogsFromTheIssueIndexAreNotStored() throws Exception {
+
+        starter("91", "org.apache.sling:" + API + ":1.0.0");
+        starter("92", "org.apache.sling:" + API + ":1.1.0");
+
+        // the index only knows some of the issues, which must not end up in change logs reused with Jira
+        Path issueIndex = folder.getRoot().toPath().resolve("issues.idx");
+        IssueIndex.write(issueIndex, Arrays.asList(new Issue("SLING-2", new Fields("Other", new IssueType("Bug")))));
+        Path changeLogStore = folder.getRoot().toPath().resolve("changelogs.json");
+
+        Options options = Options.parse(
+                "--local-repo=" + localRepository,
+                "--issue-resolver=index",
+                "--issue-index=" + issueIndex,
+                "--jira-cache=none",
+                "--changelog-store=" + changeLogStore,
+                "--commit-index=none");
+
+        List<String> output = run(new LaunchpadComparer(
+                Arrays.asList("91", "92"),
+                "plaintext",
+                folder.getRoot().toPath().resolve("checkout").toString(),
+                options));
+
+        assertThat(output.get(output.size() - 1), equalTo("org.apache.sling : " + API + " : 1.0.0 -> 1.1.0"));
+        assertThat(
+                ChangeLogStore.open(changeLogStore, IssueKeyScanner.DEFAULT_PROJECTS)
+                        .get(API, "1.0.0", "1.1.0"),
+                nullValue());
+    }
+
+    @Test
+    public void missingLocalFeaturesAreRejected() {
+
+        String missing = folder.getRoot().toPath().resolve("missing.json").toString();
+        try {
+            new LaunchpadComparer(Arrays.asList("91", missing), "plaintext", "..", Options.parse());
+            fail("Expected " + missing + " to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), equalTo("No feature file or directory " + missing));
+        }
+    }
+
+    /**
+     * @return the non-empty lines written to the standard output, with the column padding collapsed
+     */
+    private static List<String> run(LaunchpadComparer comparer) throws Exception {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(bytes, true, "UTF-8"));
+        try {
+            comparer.run();
+        } finally {
+            System.setOut(out);
+        }
+
+        List<String> lines = new ArrayList<>();
+        for (String line : new String(bytes.toByteArray(), StandardCharsets.UTF_8).split("\\R")) {
+            if (!line.trim().isEmpty()) {
+                lines.add(line.trim().replaceAll("\\s+", " "));
+            }
+        }
+        return lines;
+    }
+}
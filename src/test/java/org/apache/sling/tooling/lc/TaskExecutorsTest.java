@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TaskExecutorsTest {
+
+    @Test
+    public void runsAtMostThreadsTasksAtATime() throws Exception {
+
+        ExecutorService executor = TaskExecutors.newBoundedExecutor("bounded", 3);
+        try {
+            assertThat(maxRunning(executor, 12), equalTo(3));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void limitedExecutorRunsAtMostPermitsTasksAtATime() throws Exception {
+
+        // the same limit as used for virtual threads, on platform threads
+        ExecutorService executor = TaskExecutors.limit(Executors.newCachedThreadPool(), 3);
+        try {
+            assertThat(maxRunning(executor, 12), equalTo(3));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void limitedExecutorCancelsWaitingTasksOnShutdown() throws Exception {
+
+        ExecutorService executor = TaskExecutors.limit(Executors.newCachedThreadPool(), 1);
+        CountDownLatch started = new CountDownLatch(1);
+        Future<?> running = executor.submit(() -> {
+            started.countDown();
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            return null;
+        });
+        Future<?> waiting = executor.submit(() -> null);
+        started.await();
+
+        executor.shutdownNow();
+
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS), equalTo(true));
+        assertThat(running.isDone(), equalTo(true));
+        assertThat(waiting.isCancelled(), equalTo(true));
+    }
+
+    @Test
+    public void threadsAreNamedAndDoNotKeepTheJvmAlive() throws Exception {
+
+        ExecutorService executor = TaskExecutors.newBoundedExecutor("named", 1);
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get();
+
+            assertThat(thread.getName(), startsWith("named-"));
+            assertThat(thread.isDaemon(), equalTo(true));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void contextExecutorIsSizedAndShutDown() throws Exception {
+
+        ComparerContext context = new ComparerContext("..", Options.parse("--threads=2"));
+        ExecutorService executor = context.getExecutor();
+        assertThat(context.getExecutor(), equalTo(executor));
+        assertThat(maxRunning(executor, 6), equalTo(2));
+
+        // closing the context interrupts the tasks still running
+        CountDownLatch started = new CountDownLatch(1);
+        Future<?> blocked = executor.submit(() -> {
+            started.countDown();
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            return null;
+        });
+        started.await();
+        context.close();
+
+        assertThat(executor.isShutdown(), equalTo(true));
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS), equalTo(true));
+        assertThat(blocked.isDone(), equalTo(true));
+    }
+
+    @Test
+    public void threadsMustBePositive() throws Exception {
+
+        for (String threads : new String[] {"0", "-1"}) {
+            try (ComparerContext context = new ComparerContext("..", Options.parse("--threads=" + threads))) {
+                context.getExecutor();
+                fail("Expected --threads=" + threads + " to be rejected");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), startsWith("Invalid number for --threads : " + threads));
+            }
+        }
+    }
+
+    private static int maxRunning(ExecutorService executor, int count) throws Exception {
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(executor.submit(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(50);
+                running.decrementAndGet();
+                return null;
+            }));
+        }
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        return maxRunning.get();
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.aether;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.sling.tooling.lc.metrics.Metrics;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class AetherSetupTest {
+
+    private static final String FIRST = "org.example:first:slingosgifeature:1.0";
+    private static final String SECOND = "org.example:second:slingosgifeature:2.0";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path remote;
+    private Path local;
+    private HttpServer server;
+    private AetherSetup aether;
+
+    @Before
+    public void createRepositories() throws IOException {
+        remote = folder.newFolder("remote").toPath();
+        deploy("first", "1.0");
+        deploy("second", "2.0");
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/maven2/", this::serve);
+        server.start();
+
+        local = folder.newFolder("local").toPath();
+        aether = newAether();
+    }
+
+    /**
+     * @return a setup for a new run, sharing the local repository with the previous ones
+     */
+    private AetherSetup newAether() {
+        AetherSetup aether = new AetherSetup(local.toString(), Collections.emptyMap());
+        aether.setRemoteRepositories(Collections.singletonList(repository("remote", remoteUrl())));
+        return aether;
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private String remoteUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/maven2/";
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        Path file = remote.resolve(exchange.getRequestURI().getPath().substring("/maven2/".length()));
+        if (!Files.isRegularFile(file)) {
+            exchange.sendResponseHeaders(404, -1);
+        } else if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(200, -1);
+        } else {
+            byte[] body = Files.readAllBytes(file);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+        exchange.close();
+    }
+
+    private void deploy(String artifactId, String version) throws IOException {
+        deploy(artifactId, version, version, "{\"id\":\"" + artifactId + "\"}");
+    }
+
+    private void deploy(String artifactId, String baseVersion, String version, String content) throws IOException {
+        Path file = remote.resolve("org/example/" + artifactId + "/" + baseVersion + "/" + artifactId + "-" + version
+                + ".slingosgifeature");
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Deploys a timestamped SNAPSHOT, as a snapshot repository holds them
+     */
+    private void deploySnapshot(String artifactId, String release, int build) throws IOException {
+        String baseVersion = release + "-SNAPSHOT";
+        String timestamp = "20260101.12000" + build;
+        String version = release + "-" + timestamp + "-" + build;
+        deploy(artifactId, baseVersion, version, "build " + build);
+
+        String metadata = "<metadata><groupId>org.example</groupId><artifactId>" + artifactId + "</artifactId>"
+                + "<version>" + baseVersion + "</version><versioning><snapshot><timestamp>" + timestamp
+                + "</timestamp><buildNumber>" + build + "</buildNumber></snapshot><lastUpdated>"
+                + timestamp.replace(".", "") + "</lastUpdated><snapshotVersions><snapshotVersion>"
+                + "<extension>slingosgifeature</extension><value>" + version + "</value><updated>"
+                + timestamp.replace(".", "")
+                + "</updated></snapshotVersion></snapshotVersions></versioning></metadata>";
+        Files.write(
+                remote.resolve("org/example/" + artifactId + "/" + baseVersion + "/maven-metadata.xml"),
+                metadata.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static RemoteRepository repository(String id, String url) {
+        return new RemoteRepository.Builder(id, "default", url).build();
+    }
+
+    @Test
+    public void artifactsAreResolvedInOneBatch() throws Exception {
+
+        Metrics metrics = new Metrics();
+        aether.setMetrics(metrics);
+
+        List<File> files = aether.download(Arrays.asList(SECOND, FIRST));
+
+        assertThat(files.size(), equalTo(2));
+        assertThat(files.get(0).getName(), equalTo("second-2.0.slingosgifeature"));
+        assertThat(files.get(1).getName(), equalTo("first-1.0.slingosgifeature"));
+        assertThat(files.get(1).isFile(), equalTo(true));
+        assertThat(metrics.getCount("aether.artifacts"), equalTo(2L));
+        assertThat(metrics.getTimer("aether.resolve").getCount(), equalTo(1));
+    }
+
+    @Test
+    public void mirrorIsUsedForMatchingRepositories() throws Exception {
+
+        aether.setRemoteRepositories(Collections.singletonList(repository("unreachable", remoteUrl() + "missing/")));
+
+        expectUnresolvable(FIRST);
+
+        aether.addMirror("mirror", remoteUrl(), "unreachable");
+
+        assertThat(aether.download(FIRST).getName(), equalTo("first-1.0.slingosgifeature"));
+    }
+
+    @Test
+    public void offlineOnlyResolvesFromTheLocalRepository() throws Exception {
+
+        aether.setOffline(true);
+        expectUnresolvable(FIRST);
+
+        aether.setOffline(false);
+        aether.download(FIRST);
+
+        aether.setOffline(true);
+        assertThat(aether.download(FIRST).isFile(), equalTo(true));
+        expectUnresolvable(SECOND);
+    }
+
+    @Test
+    public void snapshotsAreOnlyUpdatedAsThePolicyAllows() throws Exception {
+
+        String snapshot = "org.example:third:slingosgifeature:3.0-SNAPSHOT";
+        deploySnapshot("third", "3.0", 1);
+        assertThat(read(aether.download(snapshot)), equalTo("build 1"));
+        deploySnapshot("third", "3.0", 2);
+
+        // each run checks for updates at most once
+        AetherSetup never = newAether();
+        never.setUpdatePolicy("never");
+        assertThat(read(never.download(snapshot)), equalTo("build 1"));
+
+        AetherSetup always = newAether();
+        always.setUpdatePolicy("always");
+        assertThat(read(always.download(snapshot)), equalTo("build 2"));
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private void expectUnresolvable(String coordinates) {
+        try {
+            aether.download(coordinates);
+            fail("Expected " + coordinates + " not to be resolved");
+        } catch (ArtifactResolutionException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.aether;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.sling.feature.ArtifactId;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ArtifactKeyTest {
+
+    @Test
+    public void canonicalInstances() {
+
+        ArtifactKey key = ArtifactKey.of(ArtifactId.parse("org.apache.sling:org.apache.sling.api:2.27.0"));
+
+        assertThat(ArtifactKey.of(ArtifactId.parse("org.apache.sling:org.apache.sling.api:2.27.2")), sameInstance(key));
+        assertThat(ArtifactKey.of("org.apache.sling", "org.apache.sling.api", null, "bundle"), sameInstance(key));
+        assertThat(
+                ArtifactKey.of(new String("org.apache.sling"), "org.apache.sling.api", "", "jar"), sameInstance(key));
+    }
+
+    @Test
+    public void unusedKeysAreDropped() throws InterruptedException {
+
+        int before = ArtifactKey.getCanonicalKeyCount();
+        for (int i = 0; i < 1000; i++) {
+            ArtifactKey.of("org.example", "unused-" + i, null, null);
+        }
+
+        // the keys are dropped once collected and a new key is interned
+        for (int attempt = 0; attempt < 20 && ArtifactKey.getCanonicalKeyCount() > before + 1; attempt++) {
+            System.gc();
+            Thread.sleep(50);
+            ArtifactKey.of("org.example", "new-" + attempt, null, null);
+        }
+        assertThat(ArtifactKey.getCanonicalKeyCount() <= before + 1, equalTo(true));
+    }
+
+    @Test
+    public void ordering() {
+
+        List<ArtifactKey> expected = Arrays.asList(
+                key("commons-io:commons-io:1"),
+                key("org.apache.jackrabbit:oak-core:1"),
+                key("org.apache.sling:org.apache.sling.api:1"),
+                key("org.apache.sling:org.apache.sling.api:zip:1"),
+                key("org.apache.sling:org.apache.sling.api:zip:sources:1"),
+                key("org.apache.sling:org.apache.sling.api:jar:tests:1"));
+
+        List<ArtifactKey> keys = new ArrayList<>(expected);
+        Collections.reverse(keys);
+        Collections.sort(keys);
+
+        assertThat(keys, equalTo(expected));
+    }
+
+    private static ArtifactKey key(String id) {
+        return ArtifactKey.of(ArtifactId.parse(id));
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.feature;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+import org.apache.sling.feature.ArtifactId;
+import org.apache.sling.tooling.lc.aether.ArtifactKey;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class FeatureBundleReaderTest {
+
+    @Test
+    public void readsOnlyBundles() throws IOException {
+
+        String feature = "{\n"
+                + "  // comments are allowed in features\n"
+                + "  \"id\": \"org.apache.sling:org.apache.sling.starter:slingosgifeature:oak_tar:12\",\n"
+                + "  \"variables\": { \"oak.version\": \"1.40.0\" },\n"
+                + "  \"configurations\": { \"org.example.Config\": { \"bundles\": [ \"x:y:1\" ] } },\n"
+                + "  \"bundles\": [\n"
+                + "    \"commons-io:commons-io:2.11.0\",\n"
+                + "    { \"start-order\": \"5\", \"id\": \"org.apache.jackrabbit:oak-core:${oak.version}\" },\n"
+                + "    { \"id\": \"org.example:classified:jar:tests:1.0\", \"nested\": { \"id\": \"x:y:2\" } }\n"
+                + "  ],\n"
+                + "  \"repoinit:TEXT|true\": [ \"create path /content\" ]\n"
+                + "}";
+
+        Map<ArtifactKey, String> bundles = FeatureBundleReader.read(new StringReader(feature), "test");
+
+        assertThat(bundles.size(), equalTo(3));
+        assertThat(bundles.get(key("commons-io:commons-io:0")), equalTo("2.11.0"));
+        assertThat(bundles.get(key("org.apache.jackrabbit:oak-core:0")), equalTo("1.40.0"));
+        assertThat(bundles.get(key("org.example:classified:jar:tests:0")), equalTo("1.0"));
+    }
+
+    @Test(expected = IOException.class)
+    public void bundleWithoutId() throws IOException {
+
+        FeatureBundleReader.read(new StringReader("{ \"bundles\": [ { \"start-order\": \"5\" } ] }"), "test");
+    }
+
+    private static ArtifactKey key(String id) {
+        return ArtifactKey.of(ArtifactId.parse(id));
+    }
+}
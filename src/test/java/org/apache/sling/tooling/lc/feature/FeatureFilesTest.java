@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.feature;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.sling.tooling.lc.aether.ArtifactKey;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class FeatureFilesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void directoriesAreMerged() throws IOException {
+
+        Path aggregate = folder.getRoot().toPath();
+        Path base = write(aggregate.resolve("base.json"), "\"org.example:api:1.0\", \"org.example:impl:1.0\"");
+        Path app = write(aggregate.resolve("app/app.json"), "\"org.example:app:2.0\", \"org.example:impl:1.1\"");
+        Files.write(aggregate.resolve("README.md"), "not a feature".getBytes(StandardCharsets.UTF_8));
+
+        List<Path> features = FeatureFiles.list(aggregate);
+        assertThat(features, equalTo(Arrays.asList(app, base)));
+
+        List<String> conflicts = new ArrayList<>();
+        Map<ArtifactKey, String> bundles =
+                FeatureFiles.merge(Arrays.asList(FeatureFiles.read(app), FeatureFiles.read(base)), conflicts);
+
+        assertThat(bundles.size(), equalTo(3));
+        assertThat(bundles.get(ArtifactKey.of("org.example", "impl", null, null)), equalTo("1.0"));
+        assertThat(conflicts, equalTo(Arrays.asList("org.example:impl is listed as both 1.1 and 1.0")));
+    }
+
+    @Test(expected = IOException.class)
+    public void emptyDirectory() throws IOException {
+
+        FeatureFiles.list(folder.getRoot().toPath());
+    }
+
+    @Test
+    public void locationsAreConfinedToTheDirectory() throws IOException {
+
+        Path root = folder.getRoot().toPath().toRealPath();
+        Path features = Files.createDirectory(root.resolve("features"));
+        Path feature = write(features.resolve("app/app.json"), "\"org.example:app:2.0\"");
+        Path outside = write(root.resolve("outside.json"), "\"org.example:app:1.0\"");
+
+        assertThat(FeatureFiles.resolve(features, "app/app.json"), equalTo(feature));
+        assertThat(FeatureFiles.resolve(features, "app/../app"), equalTo(feature.getParent()));
+
+        Files.createSymbolicLink(features.resolve("link.json"), outside);
+        for (String location : Arrays.asList("../outside.json", outside.toString(), "link.json", "missing.json")) {
+            try {
+                FeatureFiles.resolve(features, location);
+                fail("Expected " + location + " to be rejected");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), equalTo("No feature " + location + " in " + features));
+            }
+        }
+    }
+
+    private static Path write(Path feature, String bundles) throws IOException {
+        Files.createDirectories(feature.getParent());
+        String json = "{ \"id\": \"org.example:feature:slingosgifeature:1.0\", \"bundles\": [ " + bundles + " ] }";
+        return Files.write(feature, json.getBytes(StandardCharsets.UTF_8));
+    }
+}
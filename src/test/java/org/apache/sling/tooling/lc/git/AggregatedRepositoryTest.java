@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.git;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.sling.tooling.lc.metrics.Metrics;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class AggregatedRepositoryTest {
+
+    private static final String API = "org.apache.sling.api";
+    private static final String ENGINE = "org.apache.sling.engine";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private RepositoryMapping mapping;
+
+    @Before
+    public void createRepository() throws IOException, GitAPIException {
+
+        File mappingFile = folder.newFile("mapping.properties");
+        Files.write(
+                mappingFile.toPath(),
+                Arrays.asList(API + " = sling-modules::bundles/api/", "* = sling-modules::bundles/{artifactId}"),
+                StandardCharsets.UTF_8);
+        mapping = RepositoryMapping.load(mappingFile.toPath());
+
+        File root = new File(folder.getRoot(), "sling-modules");
+        try (Git git = Git.init().setDirectory(root).call()) {
+            change(git, "bundles/api/pom.xml");
+            change(git, "bundles/" + ENGINE + "/pom.xml");
+            commit(git, "Initial import");
+            tag(git, API + "-1.0.0");
+            tag(git, ENGINE + "-1.0.0");
+
+            change(git, "bundles/api/pom.xml");
+            commit(git, "SLING-1 api fix");
+            change(git, "bundles/" + ENGINE + "/pom.xml");
+            commit(git, "SLING-2 engine fix");
+            change(git, "README.md");
+            commit(git, "Unrelated change");
+            change(git, "bundles/api/pom.xml");
+            change(git, "bundles/" + ENGINE + "/pom.xml");
+            commit(git, "SLING-3 fix for both");
+            tag(git, API + "-1.1.0");
+            tag(git, ENGINE + "-1.1.0");
+        }
+    }
+
+    private void change(Git git, String path) throws IOException, GitAPIException {
+        File file = new File(git.getRepository().getWorkTree(), path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), Arrays.asList(String.valueOf(System.nanoTime())), StandardCharsets.UTF_8);
+        git.add().addFilepattern(path).call();
+    }
+
+    private static void commit(Git git, String message) throws GitAPIException {
+        git.commit().setMessage(message).call();
+    }
+
+    private static void tag(Git git, String name) throws GitAPIException {
+        git.tag().setName(name).setAnnotated(true).call();
+    }
+
+    @Test
+    public void mapping() {
+
+        assertThat(mapping.getRepository(API), equalTo("sling-modules"));
+        assertThat(mapping.getPath(API), equalTo("bundles/api"));
+        assertThat(mapping.getPath(ENGINE), equalTo("bundles/" + ENGINE));
+        assertThat(RepositoryMapping.DEFAULT.getRepository(API), equalTo("org-apache-sling-api"));
+        assertThat(RepositoryMapping.DEFAULT.getPath(API), nullValue());
+    }
+
+    @Test
+    public void changesOfSeveralArtifacts() throws IOException, GitAPIException {
+
+        GitChangeLogFinder.Range api = new GitChangeLogFinder.Range(API, "1.0.0", "1.1.0");
+        GitChangeLogFinder.Range engine = new GitChangeLogFinder.Range(ENGINE, "1.0.0", "1.1.0");
+
+        Metrics metrics = new Metrics();
+        try (GitChangeLogFinder finder =
+                new GitChangeLogFinder(new RepositoryRegistry(folder.getRoot().getPath(), mapping))) {
+            finder.setMetrics(metrics);
+            Map<GitChangeLogFinder.Range, List<String>> changes = finder.getChanges(Arrays.asList(api, engine));
+
+            assertThat(changes.get(api), equalTo(Arrays.asList("SLING-3 fix for both", "SLING-1 api fix")));
+            assertThat(changes.get(engine), equalTo(Arrays.asList("SLING-3 fix for both", "SLING-2 engine fix")));
+
+            // each commit is visited once for all ranges sharing the history
+            assertThat(metrics.getCount("git.commits"), equalTo(5L));
+
+            // a single artifact gives the same result
+            assertThat(
+                    finder.getChanges(API, "1.0.0", "1.1.0"),
+                    equalTo(Arrays.asList("SLING-3 fix for both", "SLING-1 api fix")));
+        }
+    }
+
+    @Test
+    public void artifactWithoutTagsOnlyFailsItsOwnRange() {
+
+        GitChangeLogFinder.Range engine = new GitChangeLogFinder.Range(ENGINE, "1.0.0", "1.1.0");
+        GitChangeLogFinder.Range other = new GitChangeLogFinder.Range("org.apache.sling.other", "1.0.0", "1.1.0");
+
+        try (GitChangeLogFinder finder =
+                new GitChangeLogFinder(new RepositoryRegistry(folder.getRoot().getPath(), mapping))) {
+            Map<GitChangeLogFinder.Range, GitChangeLogFinder.Commits> commits =
+                    finder.getCommits(Arrays.asList(other, engine));
+
+            assertThat(commits.get(other).getFailure(), notNullValue());
+            assertThat(commits.get(other).getFailure().getMessage(), containsString("org.apache.sling.other-1.0.0"));
+            assertThat(commits.get(engine).getFailure(), nullValue());
+            assertThat(
+                    commits.get(engine).getMessages(),
+                    equalTo(Arrays.asList("SLING-3 fix for both", "SLING-2 engine fix")));
+        }
+    }
+}
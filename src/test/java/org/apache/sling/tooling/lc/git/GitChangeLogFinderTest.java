@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.git;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.sling.tooling.lc.jira.IssueKeyScanner;
+import org.apache.sling.tooling.lc.metrics.Metrics;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.MergeCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class GitChangeLogFinderTest {
+
+    private static final String ARTIFACT_ID = "org.apache.sling.adapter";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void createRepository() throws GitAPIException {
+
+        try (Git git = Git.init()
+                .setDirectory(new File(folder.getRoot(), ARTIFACT_ID.replace('.', '-')))
+                .call()) {
+            commit(git, "Initial import");
+            tag(git, "1.0.0", true);
+            commit(git, "SLING-1 first fix");
+            commit(git, "SLING-2 second fix\n\nFollow-up of [SLING-1], see also OAK-5.\n");
+            tag(git, "1.0.2", false);
+            commit(git, "SLING-3 third fix");
+            tag(git, "1.1.0", true);
+            // another module sharing the prefix, must not be mistaken for a version
+            tag(git, "extensions-1.0.0", true);
+        }
+    }
+
+    private static void commit(Git git, String message) throws GitAPIException {
+        git.commit().setMessage(message).setAllowEmpty(true).call();
+    }
+
+    private static void tag(Git git, String version, boolean annotated) throws GitAPIException {
+        git.tag().setName(ARTIFACT_ID + "-" + version).setAnnotated(annotated).call();
+    }
+
+    @Test
+    public void changesBetweenTags() throws IOException, GitAPIException {
+
+        try (GitChangeLogFinder finder = new GitChangeLogFinder(folder.getRoot().getPath())) {
+            assertThat(
+                    finder.getChanges(ARTIFACT_ID, "1.0.0", "1.1.0"),
+                    equalTo(Arrays.asList("SLING-3 third fix", "SLING-2 second fix", "SLING-1 first fix")));
+            assertThat(finder.getChanges(ARTIFACT_ID, "1.0.2", "1.1.0"), equalTo(Arrays.asList("SLING-3 third fix")));
+        }
+    }
+
+    @Test
+    public void issueKeysFromFullMessages() throws IOException, GitAPIException {
+
+        try (GitChangeLogFinder finder = new GitChangeLogFinder(folder.getRoot().getPath())) {
+            finder.setIssueKeyScanner(IssueKeyScanner.forProjects("SLING,OAK"));
+
+            GitChangeLogFinder.Range range = new GitChangeLogFinder.Range(ARTIFACT_ID, "1.0.0", "1.1.0");
+            Map<GitChangeLogFinder.Range, GitChangeLogFinder.Commits> commits =
+                    finder.getCommits(Collections.singletonList(range));
+
+            assertThat(commits.get(range).getMessages().size(), equalTo(3));
+            assertThat(
+                    commits.get(range).getIssueKeys(),
+                    equalTo(new LinkedHashSet<>(Arrays.asList("SLING-3", "SLING-2", "SLING-1", "OAK-5"))));
+        }
+    }
+
+    @Test
+    public void commitIndexIsUpdatedForNewTags() throws IOException, GitAPIException {
+
+        File index = folder.newFolder("commit-index");
+
+        Metrics metrics = new Metrics();
+        try (GitChangeLogFinder finder = new GitChangeLogFinder(folder.getRoot().getPath())) {
+            finder.setCommitIndexDirectory(index.toPath());
+            finder.setMetrics(metrics);
+            assertThat(
+                    finder.getChanges(ARTIFACT_ID, "1.0.0", "1.1.0"),
+                    equalTo(Arrays.asList("SLING-3 third fix", "SLING-2 second fix", "SLING-1 first fix")));
+            assertThat(finder.getChanges(ARTIFACT_ID, "1.0.2", "1.1.0"), equalTo(Arrays.asList("SLING-3 third fix")));
+            finder.save();
+        }
+        assertThat(metrics.getCount("git.index.segments"), equalTo(2L));
+        assertThat(metrics.getCount("git.index.hits"), equalTo(2L));
+
+        try (Git git = Git.open(new File(folder.getRoot(), ARTIFACT_ID.replace('.', '-')))) {
+            commit(git, "SLING-4 fourth fix");
+            tag(git, "1.2.0", true);
+        }
+
+        // only the segment of the new tag is computed
+        metrics = new Metrics();
+        try (GitChangeLogFinder finder = new GitChangeLogFinder(folder.getRoot().getPath())) {
+            finder.setCommitIndexDirectory(index.toPath());
+            finder.setMetrics(metrics);
+            assertThat(finder.getChanges(ARTIFACT_ID, "1.0.0", "1.2.0").size(), equalTo(4));
+        }
+        assertThat(metrics.getCount("git.index.segments"), equalTo(1L));
+        assertThat(metrics.getCount("git.index.hits"), equalTo(1L));
+    }
+
+    @Test
+    public void commitIndexFallsBackToWalkForBranches() throws IOException, GitAPIException {
+
+        try (Git git = Git.open(new File(folder.getRoot(), ARTIFACT_ID.replace('.', '-')))) {
+            git.checkout()
+                    .setCreateBranch(true)
+                    .setName("maintenance")
+                    .setStartPoint(ARTIFACT_ID + "-1.0.2")
+                    .call();
+            commit(git, "SLING-5 maintenance fix");
+            tag(git, "1.0.3", true);
+        }
+
+        Metrics metrics = new Metrics();
+        try (GitChangeLogFinder finder = new GitChangeLogFinder(folder.getRoot().getPath())) {
+            finder.setCommitIndexDirectory(folder.newFolder("commit-index").toPath());
+            finder.setMetrics(metrics);
+            // 1.0.3 is not an ancestor of 1.1.0
+            assertThat(finder.getChanges(ARTIFACT_ID, "1.0.2", "1.1.0"), equalTo(Arrays.asList("SLING-3 third fix")));
+            assertThat(
+                    finder.getChanges(ARTIFACT_ID, "1.0.0", "1.0.3"),
+                    equalTo(Arrays.asList("SLING-5 maintenance fix", "SLING-2 second fix", "SLING-1 first fix")));
+        }
+        assertThat(metrics.getCount("git.index.hits"), equalTo(1L));
+    }
+
+    @Test
+    public void mergedBranchesAreListed() throws IOException, GitAPIException {
+
+        try (Git git = Git.open(new File(folder.getRoot(), ARTIFACT_ID.replace('.', '-')))) {
+            git.checkout()
+                    .setCreateBranch(true)
+                    .setName("feature")
+                    .setStartPoint(ARTIFACT_ID + "-1.1.0")
+                    .call();
+            commit(git, "SLING-6 feature");
+            git.checkout().setName("master").call();
+            commit(git, "SLING-7 main line");
+            git.merge()
+                    .include(git.getRepository().resolve("feature"))
+                    .setFastForward(MergeCommand.FastForwardMode.NO_FF)
+                    .setMessage("Merge feature")
+                    .call();
+            tag(git, "1.3.0", true);
+        }
+
+        try (GitChangeLogFinder finder = new GitChangeLogFinder(folder.getRoot().getPath())) {
+            List<String> changes = finder.getChanges(ARTIFACT_ID, "1.1.0", "1.3.0");
+            assertThat(changes.get(0), equalTo("Merge feature"));
+            assertThat(
+                    new HashSet<>(changes),
+                    equalTo(new HashSet<>(Arrays.asList("Merge feature", "SLING-7 main line", "SLING-6 feature"))));
+            assertThat(changes.size(), equalTo(3));
+        }
+    }
+
+    @Test
+    public void missingTagFallsBackToNearestVersion() throws IOException, GitAPIException {
+
+        try (GitChangeLogFinder finder = new GitChangeLogFinder(folder.getRoot().getPath())) {
+            // 1.0.1 falls back to 1.0.0, 1.2.0-SNAPSHOT to 1.1.0
+            assertThat(
+                    finder.getChanges(ARTIFACT_ID, "1.0.1", "1.0.2"),
+                    equalTo(Arrays.asList("SLING-2 second fix", "SLING-1 first fix")));
+            assertThat(finder.getChanges(ARTIFACT_ID, "1.0.2", "1.2.0-SNAPSHOT").size(), equalTo(1));
+            // nothing below 0.9, so the lowest tag above is used
+            assertThat(finder.getChanges(ARTIFACT_ID, "0.9", "1.0.2").size(), equalTo(2));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void missingRepository() throws IOException, GitAPIException {
+
+        try (GitChangeLogFinder finder = new GitChangeLogFinder(folder.getRoot().getPath())) {
+            finder.getChanges("org.apache.sling.api", "1.0.0", "1.1.0");
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void noReleaseTags() throws IOException, GitAPIException {
+
+        try (GitChangeLogFinder finder = new GitChangeLogFinder(folder.getRoot().getPath())) {
+            new File(folder.getRoot(), ARTIFACT_ID.replace('.', '-'))
+                    .renameTo(new File(folder.getRoot(), "org-apache-sling-other"));
+            finder.getChanges("org.apache.sling.other", "1.0.0", "1.1.0");
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.git;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class RepositoryRegistryTest {
+
+    private static final String API = "org.apache.sling.api";
+    private static final String ENGINE = "org.apache.sling.engine";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void createRepositories() throws GitAPIException {
+
+        for (String artifactId : Arrays.asList(API, ENGINE)) {
+            try (Git git = Git.init()
+                    .setDirectory(new File(folder.getRoot(), artifactId.replace('.', '-')))
+                    .call()) {
+                git.commit().setMessage("Initial import").call();
+                git.tag().setName(artifactId + "-1.0.0").setAnnotated(true).call();
+            }
+        }
+    }
+
+    @Test
+    public void repositoriesAreOpenedOnce() throws IOException {
+
+        try (RepositoryRegistry registry =
+                new RepositoryRegistry(folder.getRoot().getPath())) {
+
+            assertThat(registry.get(API), sameInstance(registry.get(API)));
+            assertThat(registry.get(API), not(sameInstance(registry.get(ENGINE))));
+        }
+    }
+
+    @Test
+    public void tagsAreIndexedOncePerRepository() throws IOException {
+
+        try (RepositoryRegistry registry =
+                new RepositoryRegistry(folder.getRoot().getPath())) {
+
+            TagIndex tags = registry.getTags(API);
+            assertThat(registry.getTags(API), sameInstance(tags));
+            assertThat(registry.getTags(ENGINE), not(sameInstance(tags)));
+            assertThat(tags.find(API, "1.0.0"), notNullValue());
+            assertThat(tags.find(ENGINE, "1.0.0"), nullValue());
+        }
+    }
+
+    @Test
+    public void artifactsOfOneRepositoryShareItAndItsTags() throws IOException, GitAPIException {
+
+        try (Git git = Git.init()
+                .setDirectory(new File(folder.getRoot(), "sling-modules"))
+                .call()) {
+            git.commit().setMessage("Initial import").call();
+            git.tag().setName(API + "-1.1.0").setAnnotated(true).call();
+            git.tag().setName(ENGINE + "-1.1.0").setAnnotated(true).call();
+        }
+
+        try (RepositoryRegistry registry =
+                new RepositoryRegistry(folder.getRoot().getPath(), sharedMapping())) {
+
+            assertThat(registry.get(API), sameInstance(registry.get(ENGINE)));
+
+            TagIndex tags = registry.getTags(API);
+            assertThat(registry.getTags(ENGINE), sameInstance(tags));
+            assertThat(tags.find(API, "1.1.0"), notNullValue());
+            assertThat(tags.find(ENGINE, "1.1.0"), notNullValue());
+        }
+    }
+
+    private RepositoryMapping sharedMapping() throws IOException {
+        File mapping = folder.newFile("mapping.properties");
+        Files.write(mapping.toPath(), Arrays.asList("* = sling-modules::bundles/{artifactId}"), StandardCharsets.UTF_8);
+        return RepositoryMapping.load(mapping.toPath());
+    }
+
+    @Test
+    public void refreshTagsPicksUpNewTags() throws IOException, GitAPIException {
+
+        try (RepositoryRegistry registry =
+                new RepositoryRegistry(folder.getRoot().getPath())) {
+
+            TagIndex tags = registry.getTags(API);
+            try (Git git = Git.open(new File(folder.getRoot(), API.replace('.', '-')))) {
+                git.tag().setName(API + "-1.1.0").setAnnotated(true).call();
+            }
+            assertThat(registry.getTags(API).find(API, "1.1.0"), nullValue());
+
+            registry.refreshTags();
+
+            TagIndex refreshed = registry.getTags(API);
+            assertThat(refreshed, not(sameInstance(tags)));
+            assertThat(refreshed.find(API, "1.1.0"), notNullValue());
+        }
+    }
+
+    @Test
+    public void missingRepositoriesAreReported() {
+
+        try (RepositoryRegistry registry =
+                new RepositoryRegistry(folder.getRoot().getPath())) {
+            registry.get("org.apache.sling.missing");
+            fail("Expected the missing repository to be reported");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+}
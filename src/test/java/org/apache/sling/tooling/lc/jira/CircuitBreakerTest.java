@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.jira;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CircuitBreakerTest {
+
+    @Test
+    public void opensAfterThreshold() {
+
+        CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofHours(1), Clock.systemUTC());
+
+        breaker.failure();
+        assertThat(breaker.allow(), equalTo(true));
+        breaker.failure();
+
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.OPEN));
+        assertThat(breaker.allow(), equalTo(false));
+    }
+
+    @Test
+    public void halfOpenLetsSingleProbeThrough() {
+
+        CircuitBreaker breaker = open();
+
+        assertThat(breaker.allow(), equalTo(true));
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.HALF_OPEN));
+        assertThat(breaker.allow(), equalTo(false));
+
+        // a failed probe opens the circuit again
+        breaker.failure();
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.OPEN));
+
+        // a successful one closes it
+        assertThat(breaker.allow(), equalTo(true));
+        breaker.success();
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.CLOSED));
+        assertThat(breaker.allow(), equalTo(true));
+        assertThat(breaker.allow(), equalTo(true));
+    }
+
+    @Test
+    public void abandonedProbeLetsNextCallProbe() {
+
+        CircuitBreaker breaker = open();
+
+        assertThat(breaker.allow(), equalTo(true));
+        breaker.abandoned();
+
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.OPEN));
+        assertThat(breaker.allow(), equalTo(true));
+        assertThat(breaker.allow(), equalTo(false));
+    }
+
+    @Test
+    public void concurrentCallsProbeOnce() throws Exception {
+
+        CircuitBreaker breaker = open();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> calls = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                calls.add(breaker::allow);
+            }
+            int allowed = 0;
+            for (Future<Boolean> call : executor.invokeAll(calls)) {
+                if (call.get()) {
+                    allowed++;
+                }
+            }
+            assertThat(allowed, equalTo(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return a breaker which is open, its break already over
+     */
+    private static CircuitBreaker open() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ZERO, Clock.systemUTC());
+        breaker.failure();
+        assertThat(breaker.getState(), equalTo(CircuitBreaker.State.OPEN));
+        return breaker;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.jira;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class IssueCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    static Issue issue(String key) {
+        return new Issue(key, new Fields("Summary of " + key, new IssueType("Bug")));
+    }
+
+    @Test
+    public void leastRecentlyUsedEntriesAreEvicted() {
+
+        IssueCache cache = new IssueCache(
+                folder.getRoot().toPath().resolve("issues.json"), Duration.ofDays(1), 2, Clock.systemUTC());
+        cache.put(issue("SLING-1"));
+        cache.put(issue("SLING-2"));
+        cache.lookup("SLING-1", false);
+        cache.put(issue("SLING-3"));
+
+        assertThat(cache.size(), equalTo(2));
+        assertThat(cache.lookup("SLING-1", false), notNullValue());
+        assertThat(cache.lookup("SLING-2", false), nullValue());
+        assertThat(cache.lookup("SLING-3", false), notNullValue());
+        assertThat(cache.getHits(), equalTo(3));
+        assertThat(cache.getMisses(), equalTo(1));
+    }
+
+    @Test
+    public void entriesExpire() {
+
+        MutableClock clock = new MutableClock();
+        IssueCache cache =
+                new IssueCache(folder.getRoot().toPath().resolve("issues.json"), Duration.ofHours(1), 10, clock);
+        cache.put(issue("SLING-1"));
+
+        clock.advance(Duration.ofHours(2));
+
+        assertThat(cache.lookup("SLING-1", false), nullValue());
+        assertThat(cache.getExpired(), equalTo(1));
+        assertThat(cache.getExpired("SLING-1"), notNullValue());
+        assertThat(cache.lookup("SLING-1", true).toIssue().getKey(), equalTo("SLING-1"));
+
+        cache.revalidated("SLING-1");
+        assertThat(cache.lookup("SLING-1", false), notNullValue());
+    }
+
+    @Test
+    public void entriesArePersisted() throws IOException {
+
+        Path file = folder.getRoot().toPath().resolve("cache/issues.json");
+
+        IssueCache cache = IssueCache.open(file, Duration.ofDays(1), 10);
+        cache.put(issue("SLING-1"));
+        cache.putMissing("SLING-2");
+        cache.save();
+
+        IssueCache reopened = IssueCache.open(file, Duration.ofDays(1), 10);
+        assertThat(reopened.size(), equalTo(2));
+        assertThat(reopened.lookup("SLING-1", false).toIssue().getSummary(), equalTo("Summary of SLING-1"));
+        assertThat(reopened.lookup("SLING-2", false).toIssue(), nullValue());
+    }
+
+    static class MutableClock extends Clock {
+
+        private Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
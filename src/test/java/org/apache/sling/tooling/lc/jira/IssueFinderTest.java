@@ -0,0 +1,306 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.jira;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class IssueFinderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer server;
+    private final List<Map<String, String>> requests = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> clientPorts = Collections.synchronizedList(new ArrayList<>());
+    private final List<IssueFinder> finders = new ArrayList<>();
+    private volatile boolean throttled;
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/rest/api/2/search", this::search);
+        server.start();
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        for (IssueFinder finder : finders) {
+            finder.close();
+        }
+        server.stop(0);
+    }
+
+    private IssueFinder finder(IssueCache cache, boolean offline) {
+        IssueFinder finder = new IssueFinder(new JiraClient(jiraUrl()), cache, offline);
+        finders.add(finder);
+        return finder;
+    }
+
+    private String jiraUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private void search(HttpExchange exchange) throws IOException {
+
+        if (throttled) {
+            exchange.getResponseHeaders().set("Retry-After", "0");
+            exchange.sendResponseHeaders(429, -1);
+            exchange.close();
+            return;
+        }
+
+        Map<String, String> params = new HashMap<>();
+        for (String param : exchange.getRequestURI().getRawQuery().split("&")) {
+            String[] parts = param.split("=", 2);
+            params.put(parts[0], URLDecoder.decode(parts[1], StandardCharsets.UTF_8.name()));
+        }
+        requests.add(params);
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+
+        // jql is 'key in (A-1,A-2)', answer for all keys except the ones ending with 0
+        String jql = params.get("jql");
+        List<Issue> matching = Arrays.stream(
+                        jql.substring(jql.indexOf('(') + 1, jql.indexOf(')')).split(","))
+                .filter(k -> !k.endsWith("0"))
+                .map(k -> new Issue(k, new Fields("Summary of " + k, new IssueType("Bug"))))
+                .collect(Collectors.toList());
+
+        int startAt = Integer.parseInt(params.get("startAt"));
+        int maxResults = Integer.parseInt(params.get("maxResults"));
+        List<Issue> page =
+                matching.subList(Math.min(startAt, matching.size()), Math.min(startAt + maxResults, matching.size()));
+
+        byte[] body = new Gson()
+                .toJson(new Response(startAt, maxResults, matching.size(), page))
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static List<String> keys(int count) {
+        List<String> keys = new ArrayList<>();
+        for (int i = count; i > 0; i--) {
+            keys.add("SLING-" + i);
+        }
+        return keys;
+    }
+
+    @Test
+    public void noKeysNoCalls() throws IOException {
+
+        assertThat(finder(null, false).findIssues(new ArrayList<>()).size(), equalTo(0));
+        assertThat(requests.size(), equalTo(0));
+    }
+
+    @Test
+    public void keysAreBatchedAndPaged() throws IOException {
+
+        // 25 keys in batches of 10 -> 3 batches, with pages of 4 -> 3 + 3 + 2 calls
+        IssueFinder finder = new IssueFinder(new JiraClient(jiraUrl()), null, false, Runnable::run, 10, 4);
+        finders.add(finder);
+        List<Issue> issues = finder.findIssues(keys(25));
+
+        assertThat(requests.size(), equalTo(8));
+        assertThat(issues.size(), equalTo(23));
+        assertThat(issues.get(0).getKey(), equalTo("SLING-1"));
+        assertThat(issues.get(22).getKey(), equalTo("SLING-25"));
+        assertThat(issues.get(22).getSummary(), equalTo("Summary of SLING-25"));
+    }
+
+    @Test
+    public void connectionsAreReused() throws IOException {
+
+        IssueFinder finder = finder(null, false);
+        finder.findIssues(keys(2));
+        finder.findIssues(keys(3));
+        finder.findIssues(keys(4));
+
+        assertThat(requests.size(), equalTo(3));
+        assertThat(new HashSet<>(clientPorts).size(), equalTo(1));
+    }
+
+    @Test
+    public void batchesAreSearchedConcurrently() throws IOException {
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            IssueFinder finder = new IssueFinder(new JiraClient(jiraUrl()), null, false, executor, 10, 4);
+            finders.add(finder);
+            List<Issue> issues = finder.findIssues(keys(25));
+
+            assertThat(requests.size(), equalTo(8));
+            assertThat(issues.size(), equalTo(23));
+            assertThat(issues.get(0).getKey(), equalTo("SLING-1"));
+            assertThat(issues.get(22).getKey(), equalTo("SLING-25"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void duplicateKeysAreQueriedOnce() throws IOException {
+
+        List<String> keys = new ArrayList<>(keys(3));
+        keys.addAll(keys(3));
+
+        List<Issue> issues = finder(null, false).findIssues(keys);
+
+        assertThat(requests.size(), equalTo(1));
+        assertThat(requests.get(0).get("jql"), equalTo("key in (SLING-3,SLING-2,SLING-1)"));
+        assertThat(issues.size(), equalTo(3));
+    }
+
+    @Test
+    public void cachedIssuesAreNotFetchedAgain() throws IOException {
+
+        IssueCache cache = new IssueCache(
+                folder.getRoot().toPath().resolve("issues.json"), Duration.ofDays(1), 100, Clock.systemUTC());
+        IssueFinder finder = finder(cache, false);
+
+        finder.findIssues(keys(10));
+        List<Issue> issues = finder.findIssues(keys(12));
+
+        // SLING-10 is unknown to Jira, and that is cached as well
+        assertThat(requests.size(), equalTo(2));
+        assertThat(requests.get(1).get("jql"), equalTo("key in (SLING-12,SLING-11)"));
+        assertThat(issues.size(), equalTo(11));
+        assertThat(cache.getHits(), equalTo(10));
+        assertThat(cache.getMisses(), equalTo(12));
+    }
+
+    @Test
+    public void expiredIssuesAreRevalidated() throws IOException {
+
+        IssueCacheTest.MutableClock clock = new IssueCacheTest.MutableClock();
+        IssueCache cache =
+                new IssueCache(folder.getRoot().toPath().resolve("issues.json"), Duration.ofHours(1), 100, clock);
+        cache.put(IssueCacheTest.issue("SLING-1"));
+        cache.put(IssueCacheTest.issue("SLING-2"));
+        clock.advance(Duration.ofHours(2));
+
+        List<Issue> issues = finder(cache, false).findIssues(keys(2));
+
+        assertThat(requests.size(), equalTo(1));
+        assertThat(requests.get(0).get("jql"), startsWith("key in (SLING-2,SLING-1) AND updated >= "));
+        assertThat(issues.size(), equalTo(2));
+        assertThat(cache.lookup("SLING-1", false), notNullValue());
+    }
+
+    @Test
+    public void evictedExpiredIssuesAreFetched() throws IOException {
+
+        IssueCacheTest.MutableClock clock = new IssueCacheTest.MutableClock();
+        IssueCache cache =
+                new IssueCache(folder.getRoot().toPath().resolve("issues.json"), Duration.ofHours(1), 2, clock);
+        cache.put(IssueCacheTest.issue("SLING-1"));
+        cache.put(IssueCacheTest.issue("SLING-2"));
+        clock.advance(Duration.ofHours(2));
+
+        // searching one batch after the other, the missing issues evict the expired ones before they are revalidated
+        IssueFinder finder = new IssueFinder(new JiraClient(jiraUrl()), cache, false, Runnable::run);
+        finders.add(finder);
+        List<Issue> issues = finder.findIssues(keys(4));
+
+        assertThat(requests.size(), equalTo(2));
+        assertThat(requests.get(0).get("jql"), equalTo("key in (SLING-4,SLING-3)"));
+        assertThat(requests.get(1).get("jql"), equalTo("key in (SLING-2,SLING-1)"));
+        assertThat(issues.size(), equalTo(4));
+    }
+
+    @Test
+    public void offlineOnlyUsesTheCache() throws IOException {
+
+        IssueCacheTest.MutableClock clock = new IssueCacheTest.MutableClock();
+        IssueCache cache =
+                new IssueCache(folder.getRoot().toPath().resolve("issues.json"), Duration.ofHours(1), 100, clock);
+        cache.put(IssueCacheTest.issue("SLING-1"));
+        clock.advance(Duration.ofHours(2));
+
+        List<Issue> issues = finder(cache, true).findIssues(keys(3));
+
+        assertThat(requests.size(), equalTo(0));
+        assertThat(issues.size(), equalTo(1));
+        assertThat(cache.getMisses(), equalTo(2));
+    }
+
+    @Test
+    public void unavailableJiraDegradesToKeysOnly() throws IOException {
+
+        IssueCacheTest.MutableClock clock = new IssueCacheTest.MutableClock();
+        IssueCache cache =
+                new IssueCache(folder.getRoot().toPath().resolve("issues.json"), Duration.ofHours(1), 100, clock);
+        cache.put(IssueCacheTest.issue("SLING-1"));
+        clock.advance(Duration.ofHours(2));
+        throttled = true;
+
+        JiraClient client = new JiraClient(jiraUrl());
+        client.setRetries(0, Duration.ofSeconds(1));
+        IssueFinder finder = new IssueFinder(client, cache, false);
+        finders.add(finder);
+
+        List<Issue> issues = finder.findIssues(keys(3));
+
+        // the expired issue is still good enough, the others are only known by their key
+        assertThat(issues.size(), equalTo(3));
+        assertThat(issues.get(0).isKeyOnly(), equalTo(false));
+        assertThat(issues.get(1).isKeyOnly(), equalTo(true));
+        assertThat(issues.get(2).getKey(), equalTo("SLING-3"));
+        assertThat(issues.get(2).isKeyOnly(), equalTo(true));
+    }
+
+    @Test(expected = IOException.class)
+    public void failedSearchIsReported() throws IOException {
+
+        server.removeContext("/rest/api/2/search");
+
+        finder(null, false).findIssues(keys(3));
+    }
+}
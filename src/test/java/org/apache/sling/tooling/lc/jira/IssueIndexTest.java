@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.jira;
+
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class IssueIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void csvAndJsonExportsAreIndexed() throws Exception {
+
+        String csv = "\uFEFFSummary,Issue key,Issue id,Issue Type\r\n"
+                + "\"Fix the \"\"quoted\"\" resolver\",SLING-1200,1,Bug\r\n"
+                + "\"Spans\r\ntwo lines\",OAK-7,2,Improvement\r\n";
+        String json =
+                "[{\"key\":\"FELIX-300\",\"fields\":{\"summary\":\"Felix issue\",\"issuetype\":{\"name\":\"Task\"}}},"
+                        + "{\"key\":\"SLING-9\",\"fields\":{\"summary\":\"Nine\"}}]";
+
+        List<Issue> issues = new ArrayList<>();
+        issues.addAll(IssueExports.readCsv(new StringReader(csv), "export.csv"));
+        issues.addAll(IssueExports.readJson(new StringReader(json), "export.json"));
+
+        Path file = folder.getRoot().toPath().resolve("issues.idx");
+        assertThat(IssueIndex.write(file, issues), equalTo(4));
+
+        try (IssueIndex index = IssueIndex.open(file)) {
+            assertThat(index.size(), equalTo(4));
+
+            List<Issue> found = index.findIssues(Arrays.asList("SLING-1200", "OAK-7", "SLING-9", "FELIX-300"));
+            assertThat(
+                    found.stream().map(Issue::getKey).collect(Collectors.toList()),
+                    equalTo(Arrays.asList("FELIX-300", "OAK-7", "SLING-9", "SLING-1200")));
+            assertThat(found.get(1).getSummary(), equalTo("Spans\r\ntwo lines"));
+            assertThat(found.get(2).getIssueType(), nullValue());
+            assertThat(found.get(3).getSummary(), equalTo("Fix the \"quoted\" resolver"));
+            assertThat(found.get(3).getIssueType(), equalTo("Bug"));
+        }
+    }
+
+    @Test
+    public void missingKeysAreSkipped() throws Exception {
+
+        Path file = folder.getRoot().toPath().resolve("issues.idx");
+        IssueIndex.write(
+                file,
+                Arrays.asList(
+                        new Issue("SLING-1", new Fields("Old summary", new IssueType("Bug"))),
+                        new Issue("SLING-1", new Fields("New summary", new IssueType("Bug"))),
+                        new Issue("not-a-key", new Fields("Ignored", new IssueType("Bug")))));
+
+        try (IssueIndex index = IssueIndex.open(file)) {
+            assertThat(index.size(), equalTo(1));
+
+            List<Issue> found = index.findIssues(Arrays.asList("SLING-2", "SLING-1", "OAK-1", "garbage"));
+            assertThat(found.size(), equalTo(1));
+            assertThat(found.get(0).getSummary(), equalTo("New summary"));
+        }
+    }
+}
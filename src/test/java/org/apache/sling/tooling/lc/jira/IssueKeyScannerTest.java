@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.jira;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class IssueKeyScannerTest {
+
+    private final IssueKeyScanner scanner = IssueKeyScanner.forProjects("SLING, OAK,FELIX");
+
+    @Test
+    public void keysAnywhereInTheMessage() {
+
+        String message = "[SLING-123] Fix the resolver\n\n"
+                + "Also covers SLING-124,SLING-7 and (OAK-9). Backport of FELIX-6000:\n"
+                + "SLING-123 again\r\nSLING-1";
+
+        assertThat(
+                new ArrayList<>(scanner.scan(message)),
+                equalTo(Arrays.asList("SLING-123", "SLING-124", "SLING-7", "OAK-9", "FELIX-6000", "SLING-1")));
+    }
+
+    @Test
+    public void noPartialMatches() {
+
+        String message = "XSLING-1 SLING-2a sling-3 SLING- SLING-x JCR-4 SLING_5 SLING-1234567890 OAKS-6 "
+                + "SLING-42b SLING-8_ SLING";
+
+        assertThat(scanner.scan(message).isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void keysAreCollectedInOrder() {
+
+        List<String> keys = new ArrayList<>();
+        scanner.scan("OAK-1 SLING-2", keys);
+        scanner.scan("OAK-1", keys);
+
+        assertThat(keys, equalTo(Arrays.asList("OAK-1", "SLING-2", "OAK-1")));
+        assertThat(
+                IssueKeyScanner.forProjects("SLING").scan("OAK-1 SLING-2"), equalTo(Collections.singleton("SLING-2")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidProject() {
+        IssueKeyScanner.forProjects("SLING,oak");
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.jira;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class JiraClientTest {
+
+    private HttpServer server;
+    private JiraClient client;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    // the status returned for the first failures requests, 200 afterwards
+    private volatile int status;
+    private volatile int failures;
+    private volatile String retryAfter;
+
+    @Before
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/rest/api/2/search", this::search);
+        server.start();
+
+        client = new JiraClient("http://localhost:" + server.getAddress().getPort());
+        client.setBaseBackoff(Duration.ofMillis(1));
+    }
+
+    @After
+    public void stop() throws IOException {
+        client.close();
+        server.stop(0);
+    }
+
+    private void search(HttpExchange exchange) throws IOException {
+
+        byte[] body;
+        if (requests.incrementAndGet() <= failures) {
+            if (retryAfter != null) {
+                exchange.getResponseHeaders().set("Retry-After", retryAfter);
+            }
+            body = "{\"errorMessages\":[\"Slow down\"]}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+        } else {
+            body = JiraJson.GSON
+                    .toJson(new Response(0, 50, 0, Collections.emptyList()))
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+        }
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void respond(int status, int failures, String retryAfter) {
+        this.status = status;
+        this.failures = failures;
+        this.retryAfter = retryAfter;
+    }
+
+    @Test
+    public void throttledCallsAreRetried() throws IOException {
+
+        respond(429, 2, "0");
+
+        assertThat(client.search("key in (SLING-1)", 0, 50).getTotal(), equalTo(0));
+        assertThat(requests.get(), equalTo(3));
+        assertThat(client.getConcurrencyLimit(), equalTo(2));
+    }
+
+    @Test
+    public void limitOnlyGrowsOnSuccess() throws IOException {
+
+        respond(429, 2, "0");
+        client.search("key in (SLING-1)", 0, 50);
+        assertThat(client.getConcurrencyLimit(), equalTo(2));
+
+        requests.set(0);
+        respond(400, Integer.MAX_VALUE, null);
+        for (int i = 0; i < 10; i++) {
+            try {
+                client.search("key in (SLING-1)", 0, 50);
+                fail("Expected the call to fail");
+            } catch (IOException e) {
+                // expected
+            }
+        }
+        assertThat(client.getConcurrencyLimit(), equalTo(2));
+    }
+
+    @Test
+    public void circuitOpensAfterRepeatedFailures() throws IOException {
+
+        respond(503, Integer.MAX_VALUE, null);
+        client.setRetries(2, Duration.ofSeconds(1));
+
+        for (int i = 0; i < 3; i++) {
+            expectUnavailable();
+        }
+        assertThat(requests.get(), equalTo(9));
+
+        // not calling Jira at all any more
+        expectUnavailable();
+        assertThat(requests.get(), equalTo(9));
+    }
+
+    @Test
+    public void longRetryAfterIsNotWaitedFor() throws IOException {
+
+        respond(429, Integer.MAX_VALUE, "3600");
+
+        expectUnavailable();
+        assertThat(requests.get(), equalTo(1));
+    }
+
+    @Test
+    public void otherErrorsAreNotRetried() {
+
+        respond(400, Integer.MAX_VALUE, null);
+
+        try {
+            client.search("key in (SLING-1)", 0, 50);
+            fail("Expected the call to fail");
+        } catch (IOException e) {
+            assertThat(e, not(instanceOf(JiraUnavailableException.class)));
+        }
+        assertThat(requests.get(), equalTo(1));
+    }
+
+    private void expectUnavailable() throws IOException {
+        try {
+            client.search("key in (SLING-1)", 0, 50);
+            fail("Expected Jira to be unavailable");
+        } catch (JiraUnavailableException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.jira;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class JiraJsonTest {
+
+    @Test
+    public void responseKeepsOnlyNeededFields() {
+
+        String json = "{\"expand\":\"names\",\"startAt\":50,\"maxResults\":2,\"total\":52,\"issues\":["
+                + "{\"id\":\"1\",\"self\":\"x\",\"key\":\"SLING-10\",\"fields\":{\"summary\":\"Ten\","
+                + "\"issuetype\":{\"id\":\"1\",\"name\":\"Bug\",\"subtask\":false},\"labels\":[\"a\"]}},"
+                + "{\"key\":\"OAK-2\",\"fields\":{\"summary\":null,\"issuetype\":{\"name\":\"Task\"}}}]}";
+
+        Response response = JiraJson.GSON.fromJson(json, Response.class);
+
+        assertThat(response.getStartAt(), equalTo(50));
+        assertThat(response.getTotal(), equalTo(52));
+        assertThat(response.getIssues().size(), equalTo(2));
+
+        Issue first = response.getIssues().get(0);
+        assertThat(first.getKey(), equalTo("SLING-10"));
+        assertThat(first.getProject(), equalTo("SLING"));
+        assertThat(first.getNumber(), equalTo(10));
+        assertThat(first.getSummary(), equalTo("Ten"));
+        assertThat(first.getIssueType(), equalTo("Bug"));
+        assertThat(response.getIssues().get(1).getSummary(), nullValue());
+    }
+
+    @Test
+    public void issuesAreWrittenAsReturnedByJira() {
+
+        Issue issue = new Issue("SLING-1", new Fields("Fix", new IssueType("Bug")));
+
+        String json = JiraJson.GSON.toJson(issue);
+        assertThat(
+                json,
+                equalTo("{\"key\":\"SLING-1\",\"fields\":{\"summary\":\"Fix\",\"issuetype\":{\"name\":\"Bug\"}}}"));
+
+        Issue read = JiraJson.GSON.fromJson(json, Issue.class);
+        assertThat(read.getNumber(), equalTo(1));
+        assertThat(read.getIssueType(), equalTo("Bug"));
+    }
+
+    @Test
+    public void issuesAreSortedByProjectAndNumber() {
+
+        List<Issue> issues = new ArrayList<>();
+        for (String key : Arrays.asList("SLING-10", "OAK2-5", "SLING-9", "FELIX-100", "SLING-100")) {
+            issues.add(new Issue(key, new Fields(key, new IssueType("Bug"))));
+        }
+        Collections.sort(issues);
+
+        assertThat(
+                issues.stream().map(Issue::getKey).collect(Collectors.toList()),
+                equalTo(Arrays.asList("FELIX-100", "OAK2-5", "SLING-9", "SLING-10", "SLING-100")));
+    }
+
+    @Test
+    public void invalidKeysAreSortedLast() {
+
+        List<Issue> issues = new ArrayList<>();
+        for (String key : Arrays.asList("sling-x", "SLING-2", "SLING-1234567890", "OAK-1", "Sling-1")) {
+            issues.add(new Issue(key, new Fields(key, new IssueType("Bug"))));
+        }
+        Collections.sort(issues);
+
+        assertThat(
+                issues.stream().map(Issue::getKey).collect(Collectors.toList()),
+                equalTo(Arrays.asList("OAK-1", "SLING-2", "SLING-1234567890", "Sling-1", "sling-x")));
+    }
+}
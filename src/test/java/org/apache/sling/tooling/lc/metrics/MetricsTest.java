@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.metrics;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class MetricsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void percentiles() {
+
+        Metrics metrics = new Metrics();
+        for (int i = 1; i <= 100; i++) {
+            metrics.record("git.changes", TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        Metrics.TimerSummary timer = metrics.getTimer("git.changes");
+        assertThat(timer.getCount(), equalTo(100));
+        assertThat(timer.getTotalMillis(), equalTo(5050.0));
+        // the buckets are 1/32 of a power of two wide
+        assertEquals(50.0, timer.getP50Millis(), 50.0 / 32);
+        assertEquals(95.0, timer.getP95Millis(), 95.0 / 32);
+        assertThat(timer.getMaxMillis(), equalTo(100.0));
+    }
+
+    @Test
+    public void percentilesOfManySamples() {
+
+        Metrics metrics = new Metrics();
+        for (int i = 0; i < 1_000_000; i++) {
+            metrics.record("jira.search", i % 1000 < 950 ? 1_000 : 1_000_000);
+        }
+
+        Metrics.TimerSummary timer = metrics.getTimer("jira.search");
+        assertThat(timer.getCount(), equalTo(1_000_000));
+        assertEquals(0.001, timer.getP50Millis(), 0.001 / 32);
+        assertEquals(0.001, timer.getP95Millis(), 0.001 / 32);
+        assertThat(timer.getMaxMillis(), equalTo(1.0));
+    }
+
+    @Test
+    public void disabled() {
+
+        Metrics.DISABLED.count("git.commits", 5);
+        try (Metrics.Timer timer = Metrics.DISABLED.start("git.changes")) {
+            // nothing to time
+        }
+
+        assertThat(Metrics.DISABLED.getCount("git.commits"), equalTo(0L));
+        assertThat(Metrics.DISABLED.getTimer("git.changes"), nullValue());
+    }
+
+    @Test
+    public void writeJson() throws IOException {
+
+        Metrics metrics = new Metrics();
+        metrics.count("jira.requests", 2);
+        metrics.count("jira.requests", 1);
+        metrics.record("jira.search", TimeUnit.MILLISECONDS.toNanos(20));
+
+        Path file = folder.getRoot().toPath().resolve("metrics/run.json");
+        metrics.write(file);
+
+        JsonObject json;
+        try (Reader reader = Files.newBufferedReader(file)) {
+            json = JsonParser.parseReader(reader).getAsJsonObject();
+        }
+        assertThat(json.getAsJsonObject("counters").get("jira.requests").getAsLong(), equalTo(3L));
+        assertThat(
+                json.getAsJsonObject("timers")
+                        .getAsJsonObject("jira.search")
+                        .get("p95Millis")
+                        .getAsDouble(),
+                equalTo(20.0));
+    }
+}
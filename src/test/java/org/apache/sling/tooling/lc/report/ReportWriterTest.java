@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.tooling.lc.report;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.sling.feature.ArtifactId;
+import org.apache.sling.tooling.lc.aether.ArtifactKey;
+import org.apache.sling.tooling.lc.aether.VersionChange;
+import org.apache.sling.tooling.lc.jira.Fields;
+import org.apache.sling.tooling.lc.jira.Issue;
+import org.apache.sling.tooling.lc.jira.IssueType;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ReportWriterTest {
+
+    @Test
+    public void json() throws IOException {
+
+        StringWriter out = new StringWriter();
+        write(new JsonReportWriter(out));
+
+        JsonObject report = JsonParser.parseString(out.toString()).getAsJsonObject();
+        assertThat(report.getAsJsonArray("versions").size(), equalTo(2));
+
+        JsonObject comparison = report.getAsJsonArray("comparisons").get(0).getAsJsonObject();
+        assertThat(comparison.get("from").getAsString(), equalTo("11"));
+        assertThat(comparison.get("to").getAsString(), equalTo("12"));
+        assertThat(comparison.getAsJsonArray("removed").size(), equalTo(0));
+
+        JsonObject added = comparison.getAsJsonArray("added").get(0).getAsJsonObject();
+        assertThat(added.get("artifactId").getAsString(), equalTo("org.apache.sling.new"));
+        assertThat(added.get("classifier"), nullValue());
+
+        JsonObject changed = comparison.getAsJsonArray("changed").get(0).getAsJsonObject();
+        assertThat(changed.get("from").getAsString(), equalTo("2.16.4"));
+        assertThat(changed.get("to").getAsString(), equalTo("2.18.0"));
+        JsonObject issue = changed.getAsJsonArray("issues").get(0).getAsJsonObject();
+        assertThat(issue.get("key").getAsString(), equalTo("SLING-1"));
+        assertThat(issue.get("summary").getAsString(), equalTo("Fix \"quoted\", again"));
+
+        assertThat(comparison.getAsJsonArray("changed").get(1).getAsJsonObject().get("issues"), nullValue());
+    }
+
+    @Test
+    public void markdownLinksToConfiguredIssueUrl() throws IOException {
+
+        StringWriter out = new StringWriter();
+        write(new TextReportWriter(out, true, "https://jira.example.com/browse/"));
+
+        assertThat(
+                out.toString(),
+                containsString("* [SLING-1 Fix \"quoted\", again](https://jira.example.com/browse/SLING-1) (Bug)"));
+    }
+
+    @Test
+    public void csv() throws IOException {
+
+        StringWriter out = new StringWriter();
+        write(new CsvReportWriter(out));
+
+        assertThat(
+                out.toString(),
+                equalTo(
+                        "launchpad_from,launchpad_to,change,group_id,artifact_id,classifier,type,version_from,version_to,issues\r\n"
+                                + "11,12,added,org.apache.sling,org.apache.sling.new,,jar,,1.0.0,\r\n"
+                                + "11,12,changed,org.apache.sling,org.apache.sling.api,,jar,2.16.4,2.18.0,SLING-1 SLING-2\r\n"
+                                + "11,12,changed,com.example,\"odd,name\",,jar,1,2,\r\n"));
+    }
+
+    private static void write(ReportWriter report) throws IOException {
+        try (ReportWriter r = report) {
+            r.startReport(Arrays.asList("11", "12"));
+            r.startComparison("11", "12");
+            r.startSection(ReportWriter.Section.ADDED);
+            r.artifact(new ArtifactId("org.apache.sling", "org.apache.sling.new", "1.0.0", null, null));
+            r.startSection(ReportWriter.Section.REMOVED);
+            r.startSection(ReportWriter.Section.CHANGED);
+            r.changed(
+                    ArtifactKey.of("org.apache.sling", "org.apache.sling.api", null, null),
+                    new VersionChange("2.16.4", "2.18.0"),
+                    Arrays.asList(issue("SLING-1", "Fix \"quoted\", again"), issue("SLING-2", "Other")));
+            r.changed(ArtifactKey.of("com.example", "odd,name", null, null), new VersionChange("1", "2"), null);
+        }
+    }
+
+    private static Issue issue(String key, String summary) {
+        return new Issue(key, new Fields(summary, new IssueType("Bug")));
+    }
+}